@@ -36,28 +36,101 @@
 // Input: k = 3, n = 14
 // Output: 4
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
 public class Question1a {
 
     // Function to calculate the minimum number of attempts required
-    // to determine the critical temperature level
+    // to determine the critical temperature level.
+    // The old dp[samples + 1][levels + 1] table needed gigabytes for a billion levels,
+    // so this now delegates to the O(k) memory solver; the answer never exceeds levels.
     public static int findCriticalTemperature(int samples, int levels) {
-        // dp[i][j] represents the maximum number of temperature levels
-        // that can be tested with 'i' samples and 'j' attempts.
-        int[][] dp = new int[samples + 1][levels + 1];
-        
-        int attempts = 0;
-        
-        // Iterate until we can test all 'levels' temperature values
-        while (dp[samples][attempts] < levels) {
-            attempts++;
-            for (int i = 1; i <= samples; i++) {
-                // If a sample breaks, we check lower levels (dp[i-1][attempts-1])
-                // If it doesn’t break, we check upper levels (dp[i][attempts-1])
-                dp[i][attempts] = dp[i - 1][attempts - 1] + dp[i][attempts - 1] + 1;
+        return (int) minMeasurements(samples, levels);
+    }
+
+    // Samples beyond this count can never help for levels up to Long.MAX_VALUE:
+    // with t <= 63 attempts and k >= t samples every outcome is already covered (2^t - 1 levels)
+    static final int MAX_USEFUL_SAMPLES = 63;
+
+    // Function to calculate the minimum number of attempts for up to 10^18 levels
+    // using O(k) memory instead of the full dp table.
+    // The number of levels coverable with k samples and t attempts has the closed form
+    // f(k, t) = C(t, 1) + C(t, 2) + ... + C(t, k), which is monotone in t,
+    // so we binary search the smallest t with f(k, t) >= levels.
+    public static long minMeasurements(int samples, long levels) {
+        if (samples < 1 || levels < 0) {
+            throw new IllegalArgumentException("samples must be positive and levels non-negative");
+        }
+        int k = Math.min(samples, MAX_USEFUL_SAMPLES);
+
+        // With a single sample we need exactly 'levels' attempts, so that is an upper bound
+        long low = 0;
+        long high = levels;
+        while (low < high) {
+            long mid = low + (high - low) / 2;
+            if (maxLevelsCovered(k, mid, levels) >= levels) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    // Returns f(samples, attempts) = sum of C(attempts, i) for i = 1..samples,
+    // saturated at 'cap' so that huge attempt counts never overflow a long
+    static long maxLevelsCovered(int samples, long attempts, long cap) {
+        long total = 0;
+        long term = 1; // C(attempts, 0)
+        for (int i = 1; i <= samples && i <= attempts; i++) {
+            // C(t, i) = C(t, i - 1) * (t - i + 1) / i, divided before multiplying to stay in range.
+            // i always divides term * (t - i + 1), so after removing gcd(term, i) from term
+            // the rest of i divides (t - i + 1) exactly.
+            long g = gcd(term, i);
+            long left = term / g;
+            long right = (attempts - i + 1) / (i / g);
+            if (left > cap / right) {
+                return cap; // C(t, i) alone already exceeds the cap
+            }
+            term = left * right;
+            if (term >= cap - total) {
+                return cap;
+            }
+            total += term;
+        }
+        return total;
+    }
+
+    // Greatest common divisor used to keep the binomial terms exact
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    // Benchmark to show how the closed-form solver scales with k and n
+    static void benchmark() {
+        int[] sampleCounts = {1, 2, 4, 16, 63, 1000};
+        long[] levelCounts = {1_000L, 1_000_000L, 1_000_000_000L, 1_000_000_000_000_000_000L};
+        int repetitions = 10_000;
+
+        System.out.println("k\tn\tattempts\tns/query");
+        for (int k : sampleCounts) {
+            for (long n : levelCounts) {
+                long attempts = minMeasurements(k, n); // Warm-up and result
+                long start = System.nanoTime();
+                for (int r = 0; r < repetitions; r++) {
+                    attempts = minMeasurements(k, n);
+                }
+                long perQuery = (System.nanoTime() - start) / repetitions;
+                System.out.println(k + "\t" + n + "\t" + attempts + "\t" + perQuery);
             }
         }
-        
-        return attempts;
     }
     
     public static void main(String[] args) {
@@ -65,10 +138,269 @@ public class Question1a {
         System.out.println(findCriticalTemperature(1, 2)); // Output: 2
         System.out.println(findCriticalTemperature(2, 6)); // Output: 3
         System.out.println(findCriticalTemperature(3, 14)); // Output: 4
+
+        // Same examples with the O(k) memory solver and 64-bit levels
+        System.out.println(minMeasurements(1, 2L)); // Output: 2
+        System.out.println(minMeasurements(2, 6L)); // Output: 3
+        System.out.println(minMeasurements(3, 14L)); // Output: 4
+        System.out.println(minMeasurements(2, 1_000_000_000_000_000_000L)); // Output: 1414213562
+        System.out.println(findCriticalTemperature(2, 1_000_000_000)); // Output: 44721 (no dp table)
+
+        // Shared query service answering repeated queries from one cached frontier table
+        CriticalTemperatureService service = new CriticalTemperatureService(1 << 20);
+        System.out.println(service.query(3, 14)); // Output: 4
+        System.out.println(service.query(2, 6)); // Output: 3 (answered from the cached table)
+        IntStream.range(0, 100_000).parallel().forEach(q -> {
+            int k = ThreadLocalRandom.current().nextInt(1, 8);
+            long n = ThreadLocalRandom.current().nextLong(0, 1_000_000);
+            if (service.query(k, n) != minMeasurements(k, n)) {
+                throw new AssertionError("Service disagrees with solver for k=" + k + ", n=" + n);
+            }
+        });
+        System.out.println("Service hits: " + service.hits() + ", misses: " + service.misses()
+                + ", cached cells: " + service.cachedCells());
+
+        // Adaptive measurement plan, replayed against every possible critical temperature
+        for (long critical = 0; critical <= 14; critical++) {
+            MeasurementPlan plan = new MeasurementPlan(3, 14);
+            int measurements = 0;
+            while (!plan.isResolved()) {
+                long temperature = plan.nextTemperature();
+                plan.recordResult(temperature > critical); // Material reacts above the critical temperature
+                measurements++;
+            }
+            if (plan.criticalTemperature() != critical || measurements > 4) {
+                throw new AssertionError("Plan failed for critical temperature " + critical);
+            }
+        }
+        MeasurementPlan largePlan = new MeasurementPlan(2, 1_000_000_000L);
+        System.out.println("First temperature to test: " + largePlan.nextTemperature()); // Output: 44721
+
+        if (args.length > 0 && args[0].equals("--bench")) {
+            benchmark();
+        }
+    }
+}
+
+// Adaptive measurement plan that walks the optimal decision tree one step at a time.
+// It only keeps the remaining samples, remaining attempts and the interval that still contains
+// the critical temperature, so each step is O(k) time and O(1) memory even for billions of levels.
+class MeasurementPlan {
+    private int samplesLeft; // Samples that have not reacted yet
+    private long attemptsLeft; // Measurements left in the optimal plan
+    private long low; // Smallest critical temperature still possible
+    private long high; // Largest critical temperature still possible
+
+    // Constructor to start a plan for the given number of samples and temperature levels
+    public MeasurementPlan(int samples, long levels) {
+        this.attemptsLeft = Question1a.minMeasurements(samples, levels);
+        this.samplesLeft = Math.min(samples, Question1a.MAX_USEFUL_SAMPLES);
+        this.low = 0;
+        this.high = levels;
+    }
+
+    // True once only one critical temperature is still possible
+    public boolean isResolved() {
+        return low == high;
+    }
+
+    // Number of measurements the plan may still need in the worst case
+    public long measurementsLeft() {
+        return attemptsLeft;
+    }
+
+    // The temperature that should be measured next
+    public long nextTemperature() {
+        if (isResolved()) {
+            throw new IllegalStateException("Critical temperature is already known");
+        }
+        // If the sample reacts, the remaining samples - 1 and attempts - 1 must cover everything below,
+        // so we go exactly that many levels up from the lowest candidate
+        long below = Question1a.maxLevelsCovered(samplesLeft - 1, attemptsLeft - 1, high - low);
+        return Math.min(low + below + 1, high);
+    }
+
+    // Record the outcome of measuring at nextTemperature()
+    public void recordResult(boolean reacted) {
+        long temperature = nextTemperature();
+        if (reacted) {
+            high = temperature - 1; // Critical temperature is below the tested one, sample is used up
+            samplesLeft--;
+        } else {
+            low = temperature; // Material was unchanged, so the critical temperature is at least this
+        }
+        attemptsLeft--;
+    }
+
+    // The critical temperature, available once the plan is resolved
+    public long criticalTemperature() {
+        if (!isResolved()) {
+            throw new IllegalStateException("More measurements are needed");
+        }
+        return low;
+    }
+}
+
+// Thread-safe query service that shares one lazily extended frontier table between callers.
+// frontier[i - 1][t] holds the maximum number of levels coverable with i samples and t attempts,
+// so a query is a single binary search over one row. Rows are jagged: each row only holds the
+// attempts its own queries needed, so one long row never crowds the others out of the budget.
+// Readers never lock: rows are immutable once published and growing the table swaps in a new
+// copy through a volatile field.
+class CriticalTemperatureService {
+    private final long maxCells; // Memory budget for the table, counted in long cells
+    private final LongAdder hits = new LongAdder(); // Queries answered from the cached table
+    private final LongAdder misses = new LongAdder(); // Queries that had to grow the table or fall back
+    private final Object growLock = new Object(); // Serializes writers, readers never take it
+    private volatile long[][] frontier = new long[0][]; // Currently published table
+
+    // Constructor with the maximum number of cached cells (8 bytes each)
+    public CriticalTemperatureService(long maxCells) {
+        if (maxCells < 1) {
+            throw new IllegalArgumentException("maxCells must be positive");
+        }
+        this.maxCells = maxCells;
+    }
+
+    // Returns the minimum number of attempts for the given samples and levels
+    public long query(int samples, long levels) {
+        if (samples < 1 || levels < 0) {
+            throw new IllegalArgumentException("samples must be positive and levels non-negative");
+        }
+        int k = Math.min(samples, Question1a.MAX_USEFUL_SAMPLES);
+
+        long[][] table = frontier;
+        long attempts = lookup(table, k, levels);
+        if (attempts >= 0) {
+            hits.increment();
+            return attempts;
+        }
+        misses.increment();
+
+        attempts = Question1a.minMeasurements(k, levels);
+        // Rows only ever get longer, so a query that does not fit now never will and skips the lock
+        if (fits(table, k, attempts + 1)) {
+            grow(k, attempts + 1);
+        }
+        return attempts;
+    }
+
+    // Number of queries answered directly from the table
+    public long hits() {
+        return hits.sum();
+    }
+
+    // Number of queries that had to grow the table or fall back to the solver
+    public long misses() {
+        return misses.sum();
+    }
+
+    // Number of cells currently held by the table
+    public long cachedCells() {
+        return cells(frontier);
+    }
+
+    private static long cells(long[][] table) {
+        long total = 0;
+        for (long[] row : table) {
+            total += row.length;
+        }
+        return total;
+    }
+
+    // Row i needs at least columns - (k - 1 - i) cells for row k - 1 to hold 'columns' cells,
+    // since the recurrence reads the previous row one attempt back
+    private static long rowLength(int i, int k, long columns) {
+        return Math.max(1, columns - (k - 1 - i));
+    }
+
+    // Whether extending rows 1..k so row k holds 'columns' cells stays within the budget
+    private boolean fits(long[][] table, int k, long columns) {
+        if (columns > Integer.MAX_VALUE) {
+            return false;
+        }
+        long total = cells(table);
+        for (int i = 0; i < k; i++) {
+            long length = i < table.length ? table[i].length : 0;
+            total += Math.max(0, rowLength(i, k, columns) - length);
+        }
+        return total <= maxCells;
+    }
+
+    // Binary search the smallest t with table[k - 1][t] >= levels, or -1 if the table is too small
+    private static long lookup(long[][] table, int k, long levels) {
+        if (k > table.length) {
+            return -1;
+        }
+        long[] row = table[k - 1];
+        if (row[row.length - 1] < levels) {
+            return -1;
+        }
+        int low = 0;
+        int high = row.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (row[mid] >= levels) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    // Grow rows 1..k so row k holds at least 'columns' cells if the budget allows, and publish the new copy
+    private void grow(int k, long columns) {
+        synchronized (growLock) {
+            long[][] current = frontier;
+            int oldLength = k <= current.length ? current[k - 1].length : 0;
+            if (oldLength >= columns) {
+                return; // Another writer already grew the row
+            }
+            // Grow geometrically when the budget allows so a stream of slightly larger queries stays cheap
+            long grown = Math.max(columns, 2L * oldLength);
+            if (!fits(current, k, grown)) {
+                if (!fits(current, k, columns)) {
+                    return; // Over budget, leave the published table as it is
+                }
+                grown = columns;
+            }
+
+            long[][] table = new long[Math.max(current.length, k)][];
+            for (int i = 0; i < table.length; i++) {
+                int reuse = i < current.length ? current[i].length : 0;
+                int length = i < k ? (int) Math.max(reuse, rowLength(i, k, grown)) : reuse;
+                if (length == reuse) {
+                    table[i] = current[i]; // Published rows never change, so they can be shared
+                    continue;
+                }
+                table[i] = new long[length];
+                if (reuse > 0) {
+                    System.arraycopy(current[i], 0, table[i], 0, reuse);
+                }
+                // Same dp recurrence as the original solver, saturated at Long.MAX_VALUE
+                for (int t = Math.max(reuse, 1); t < length; t++) {
+                    long broke = i == 0 ? 0 : table[i - 1][t - 1];
+                    long survived = table[i][t - 1];
+                    long value = broke + survived + 1;
+                    table[i][t] = value < 0 ? Long.MAX_VALUE : value;
+                }
+            }
+            frontier = table;
+        }
     }
 }
 
 // Outputs
 // 2
 // 3
-// 4
\ No newline at end of file
+// 4
+// 2
+// 3
+// 4
+// 1414213562
+// 44721
+// 4
+// 3
+// Service hits: ..., misses: ..., cached cells: ...
+// First temperature to test: 44721
\ No newline at end of file
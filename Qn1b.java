@@ -38,7 +38,23 @@
 // - returns1 [2] * returns2 [1] = 0 * 4 = 0
 // The 6th smallest investment is 0.
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
 
 public class Question1b {
     
@@ -74,6 +90,246 @@ public class Question1b {
         return result;
     }
 
+    // Function to find the k-th smallest product by binary searching on the product value.
+    // Works for any signs in the sorted arrays, uses long products so nothing overflows,
+    // and runs in O((m + n) log range) no matter how large k is.
+    public static long kthSmallestProduct(int[] array1, int[] array2, long k) {
+        // Validate input: Ensure k is within the possible range of products
+        if (k < 1 || k > (long) array1.length * array2.length) {
+            throw new IllegalArgumentException("k must be between 1 and the total number of possible products");
+        }
+
+        return kthSmallestProduct(array1, array2, k, productLowerBound(array1, array2), productUpperBound(array1, array2));
+    }
+
+    // Binary search for the k-th smallest product inside [low, high]
+    private static long kthSmallestProduct(int[] array1, int[] array2, long k, long low, long high) {
+        // Find the smallest value with at least k products less than or equal to it
+        while (low < high) {
+            long mid = low + ((high - low) >> 1);
+            if (countAtMost(array1, array2, mid) >= k) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    // The smallest product, which is always formed by the array ends
+    private static long productLowerBound(int[] array1, int[] array2) {
+        long first = (long) array1[0] * array2[0];
+        long second = (long) array1[0] * array2[array2.length - 1];
+        long third = (long) array1[array1.length - 1] * array2[0];
+        long fourth = (long) array1[array1.length - 1] * array2[array2.length - 1];
+        return Math.min(Math.min(first, second), Math.min(third, fourth));
+    }
+
+    // The largest product, which is always formed by the array ends
+    private static long productUpperBound(int[] array1, int[] array2) {
+        long first = (long) array1[0] * array2[0];
+        long second = (long) array1[0] * array2[array2.length - 1];
+        long third = (long) array1[array1.length - 1] * array2[0];
+        long fourth = (long) array1[array1.length - 1] * array2[array2.length - 1];
+        return Math.max(Math.max(first, second), Math.max(third, fourth));
+    }
+
+    // Batch version of kthSmallestProduct answering many k values in one pass.
+    // The queries are sorted by k and share a divide and conquer on the product value: one count
+    // at the middle value splits the queries into those answered below it and those above it, so
+    // percentiles that are close together reuse the same counting passes. Independent halves
+    // and the counting passes over large arrays run on the fork/join common pool.
+    public static long[] kthSmallestProducts(int[] array1, int[] array2, long[] ks) {
+        long total = (long) array1.length * array2.length;
+        for (long k : ks) {
+            if (k < 1 || k > total) {
+                throw new IllegalArgumentException("k must be between 1 and the total number of possible products");
+            }
+        }
+        long[] answers = new long[ks.length];
+        if (ks.length == 0) {
+            return answers;
+        }
+
+        // Chunk the longer array: each chunk restarts its pointer over the shorter one
+        int[] rows = array1.length >= array2.length ? array1 : array2;
+        int[] columns = rows == array1 ? array2 : array1;
+
+        // Query positions ordered by their k value
+        int[] order = IntStream.range(0, ks.length).boxed()
+                .sorted(Comparator.comparingLong(q -> ks[q]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        new BatchSearch(rows, columns, ks, order, answers, 0, order.length,
+                productLowerBound(rows, columns), productUpperBound(rows, columns)).invoke();
+        return answers;
+    }
+
+    // Counts pairs (i, j) with array1[i] * array2[j] <= x in O(m + n).
+    // array1 is split by sign: negative values give products that fall along array2, so the valid j
+    // form a suffix; positive values give rising products, so the valid j form a prefix.
+    // Visiting array1 in the right direction makes the threshold x / array1[i] only fall,
+    // so one pointer per sign group only ever moves left.
+    static long countAtMost(int[] array1, int[] array2, long x) {
+        return countAtMost(array1, 0, array1.length, array2, x);
+    }
+
+    // Same count restricted to the rows array1[from..to), so large inputs can be split into chunks
+    static long countAtMost(int[] array1, int from, int to, int[] array2, long x) {
+        int n = array2.length;
+        int firstNonNegative = lowerBound(array1, from, to, 0);
+        int firstPositive = lowerBound(array1, firstNonNegative, to, 1);
+        long count = 0;
+
+        // Negative values: count the suffix of array2 with array1[i] * array2[j] <= x
+        int suffixStart = n;
+        int negatives = firstNonNegative - from;
+        for (int step = 0; step < negatives; step++) {
+            int i = x >= 0 ? from + step : firstNonNegative - 1 - step;
+            while (suffixStart > 0 && (long) array1[i] * array2[suffixStart - 1] <= x) {
+                suffixStart--;
+            }
+            count += n - suffixStart;
+        }
+
+        // Zeros: every product is 0
+        if (x >= 0) {
+            count += (long) (firstPositive - firstNonNegative) * n;
+        }
+
+        // Positive values: count the prefix of array2 with array1[i] * array2[j] <= x
+        int prefixEnd = n;
+        int positives = to - firstPositive;
+        for (int step = 0; step < positives; step++) {
+            int i = x >= 0 ? firstPositive + step : to - 1 - step;
+            while (prefixEnd > 0 && (long) array1[i] * array2[prefixEnd - 1] > x) {
+                prefixEnd--;
+            }
+            count += prefixEnd;
+        }
+        return count;
+    }
+
+    // Index of the first element in array[from..to) that is greater than or equal to value
+    private static int lowerBound(int[] array, int from, int to, int value) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Function to find the k-th smallest product of two sorted long series that may live off the heap.
+    // Same counting search as kthSmallestProduct, with products outside the long range clamped
+    // to Long.MIN_VALUE / Long.MAX_VALUE so the comparisons stay correct.
+    public static long kthSmallestProduct(ReturnSeries series1, ReturnSeries series2, long k) {
+        long m = series1.length();
+        long n = series2.length();
+        if (m == 0 || n == 0) {
+            throw new IllegalArgumentException("Both series must contain at least one value");
+        }
+        long total = m > Long.MAX_VALUE / n ? Long.MAX_VALUE : m * n;
+        if (k < 1 || k > total) {
+            throw new IllegalArgumentException("k must be between 1 and the total number of possible products");
+        }
+
+        // The smallest and largest products are always formed by the series ends
+        long first = clampedProduct(series1.get(0), series2.get(0));
+        long second = clampedProduct(series1.get(0), series2.get(n - 1));
+        long third = clampedProduct(series1.get(m - 1), series2.get(0));
+        long fourth = clampedProduct(series1.get(m - 1), series2.get(n - 1));
+        long low = Math.min(Math.min(first, second), Math.min(third, fourth));
+        long high = Math.max(Math.max(first, second), Math.max(third, fourth));
+
+        while (low < high) {
+            // Unsigned shift, since high - low can exceed Long.MAX_VALUE once products are clamped
+            long mid = low + ((high - low) >>> 1);
+            if (countAtMost(series1, series2, mid) >= k) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    // Counts products <= x with the same sign-split two pointers as the int[] version
+    static long countAtMost(ReturnSeries series1, ReturnSeries series2, long x) {
+        long m = series1.length();
+        long n = series2.length();
+        long firstNonNegative = lowerBound(series1, 0);
+        long firstPositive = lowerBound(series1, 1);
+        long count = 0;
+
+        // Negative values: count the suffix of series2 with series1[i] * series2[j] <= x
+        long suffixStart = n;
+        for (long step = 0; step < firstNonNegative; step++) {
+            long value = series1.get(x >= 0 ? step : firstNonNegative - 1 - step);
+            while (suffixStart > 0 && clampedProduct(value, series2.get(suffixStart - 1)) <= x) {
+                suffixStart--;
+            }
+            count += n - suffixStart;
+        }
+
+        // Zeros: every product is 0
+        if (x >= 0) {
+            count += (firstPositive - firstNonNegative) * n;
+        }
+
+        // Positive values: count the prefix of series2 with series1[i] * series2[j] <= x
+        long prefixEnd = n;
+        for (long step = 0; step < m - firstPositive; step++) {
+            long value = series1.get(x >= 0 ? firstPositive + step : m - 1 - step);
+            while (prefixEnd > 0 && clampedProduct(value, series2.get(prefixEnd - 1)) > x) {
+                prefixEnd--;
+            }
+            count += prefixEnd;
+        }
+        return count;
+    }
+
+    // Index of the first element in the series that is greater than or equal to value
+    private static long lowerBound(ReturnSeries series, long value) {
+        long low = 0;
+        long high = series.length();
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (series.get(mid) < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // a * b, clamped to the long range when the exact product does not fit
+    private static long clampedProduct(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return low; // The exact product fits in a long
+        }
+        return high < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+
+    // Helper to write a sorted array as a temporary binary file of big-endian longs
+    private static Path writeSeries(int[] values) throws IOException {
+        Path file = Files.createTempFile("returns", ".bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            for (int value : values) {
+                out.writeLong(value);
+            }
+        }
+        return file;
+    }
+
     public static void main(String[] args) {
         // Test Case 1
         int[] array1 = {2, 5};
@@ -86,9 +342,273 @@ public class Question1b {
         int[] array4 = {2, 4};
         int k2 = 6;
         System.out.println("Test Case 2: " + kthSmallestInvestment(array3, array4, k2)); // Output: 0
+
+        // Regression checks for the counting engine on the same examples
+        System.out.println("Test Case 3: " + kthSmallestProduct(array1, array2, k1)); // Output: 8
+        System.out.println("Test Case 4: " + kthSmallestProduct(array3, array4, k2)); // Output: 0
+
+        // Negative values in both arrays: products are 6, 3, -2, -4, so the smallest is -4
+        int[] array5 = {-2, -1};
+        int[] array6 = {-3, 2};
+        System.out.println("Test Case 5: " + kthSmallestProduct(array5, array6, 1)); // Output: -4
+
+        // Products that do not fit in an int
+        int[] array7 = {-100000, 100000};
+        int[] array8 = {-100000, 100000};
+        System.out.println("Test Case 6: " + kthSmallestProduct(array7, array8, 4)); // Output: 10000000000
+
+        // Walk all products of Example 2 in ascending order without boxing
+        ProductIterator products = new ProductIterator(array3, array4);
+        StringBuilder ordered = new StringBuilder("Ordered products:");
+        while (products.hasNext()) {
+            ordered.append(' ').append(products.nextLong());
+        }
+        System.out.println(ordered); // Output: -16 -8 -8 -4 0 0 6 12
+
+        // Several percentiles of the same arrays answered in one batch
+        long[] answers = kthSmallestProducts(array3, array4, new long[]{8, 1, 6, 4});
+        System.out.println("Batch: " + Arrays.toString(answers)); // Output: [12, -16, 0, -4]
+
+        // The same example read from memory-mapped files of sorted longs
+        try {
+            Path file1 = writeSeries(array3);
+            Path file2 = writeSeries(array4);
+            try {
+                ReturnSeries series1 = MappedReturnSeries.open(file1, ByteOrder.BIG_ENDIAN);
+                ReturnSeries series2 = MappedReturnSeries.open(file2, ByteOrder.BIG_ENDIAN);
+                System.out.println("Mapped: " + kthSmallestProduct(series1, series2, k2)); // Output: 0
+            } finally {
+                Files.deleteIfExists(file1);
+                Files.deleteIfExists(file2);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
+
+// A sorted series of long returns, either on the heap or in a memory-mapped file
+interface ReturnSeries {
+    long length(); // Number of values in the series
+    long get(long index); // Value at the given position
+}
+
+// Series backed by a flat binary file of sorted longs mapped into memory.
+// The file is read through the page cache, so nothing is copied onto the heap.
+// A single mapping is limited to 2 GB, so the file is mapped as a list of 1 GB windows.
+class MappedReturnSeries implements ReturnSeries {
+    private static final int WINDOW_SHIFT = 27; // 2^27 longs = 1 GB per mapped window
+    private static final long WINDOW_MASK = (1L << WINDOW_SHIFT) - 1;
+
+    private final LongBuffer[] windows; // Mapped views of consecutive parts of the file
+    private final long length;
+
+    private MappedReturnSeries(LongBuffer[] windows, long length) {
+        this.windows = windows;
+        this.length = length;
+    }
+
+    // Map a file of sorted longs written in the given byte order
+    public static MappedReturnSeries open(Path path, ByteOrder order) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % Long.BYTES != 0) {
+                throw new IOException("File size is not a multiple of 8 bytes: " + path);
+            }
+            long length = bytes / Long.BYTES;
+            int count = (int) ((length + WINDOW_MASK) >>> WINDOW_SHIFT);
+            LongBuffer[] windows = new LongBuffer[count];
+            for (int w = 0; w < count; w++) {
+                long start = (long) w << WINDOW_SHIFT;
+                long size = Math.min(WINDOW_MASK + 1, length - start);
+                // The mapping stays valid after the channel is closed
+                windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, start * Long.BYTES, size * Long.BYTES)
+                        .order(order)
+                        .asLongBuffer();
+            }
+            return new MappedReturnSeries(windows, length);
+        }
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public long get(long index) {
+        return windows[(int) (index >>> WINDOW_SHIFT)].get((int) (index & WINDOW_MASK));
+    }
+}
+
+// Fork/join divide and conquer that answers a sorted range of k queries inside [low, high]
+class BatchSearch extends RecursiveAction {
+    private final int[] rows, columns; // Sorted input arrays, rows being the longer one
+    private final long[] ks; // All k values
+    private final int[] order; // Query positions sorted by k
+    private final long[] answers; // Output, indexed like ks
+    private final int from, to; // Range of order handled by this task
+    private final long low, high; // Every answer in this range lies in [low, high]
+
+    BatchSearch(int[] rows, int[] columns, long[] ks, int[] order, long[] answers,
+                int from, int to, long low, long high) {
+        this.rows = rows;
+        this.columns = columns;
+        this.ks = ks;
+        this.order = order;
+        this.answers = answers;
+        this.from = from;
+        this.to = to;
+        this.low = low;
+        this.high = high;
+    }
+
+    @Override
+    protected void compute() {
+        if (from == to) {
+            return;
+        }
+        if (low == high) {
+            for (int q = from; q < to; q++) {
+                answers[order[q]] = low; // Every remaining query has this answer
+            }
+            return;
+        }
+
+        // One shared count decides for every query in the range which half its answer is in
+        long mid = low + ((high - low) >> 1);
+        long count = new ParallelCount(rows, 0, rows.length, columns, mid).invoke();
+        int split = from;
+        while (split < to && ks[order[split]] <= count) {
+            split++;
+        }
+
+        BatchSearch lower = new BatchSearch(rows, columns, ks, order, answers, from, split, low, mid);
+        BatchSearch upper = new BatchSearch(rows, columns, ks, order, answers, split, to, mid + 1, high);
+        invokeAll(lower, upper);
+    }
+}
+
+// Fork/join count of products <= x, splitting the rows into chunks for large arrays
+class ParallelCount extends RecursiveTask<Long> {
+    private static final int SEQUENTIAL_ROWS = 1 << 16; // Chunks below this size are counted directly
+
+    private final int[] rows, columns;
+    private final int from, to; // Rows handled by this task
+    private final long x;
+
+    ParallelCount(int[] rows, int from, int to, int[] columns, long x) {
+        this.rows = rows;
+        this.from = from;
+        this.to = to;
+        this.columns = columns;
+        this.x = x;
+    }
+
+    @Override
+    protected Long compute() {
+        // Each chunk rewalks the shorter array once, so only split when the rows clearly dominate
+        if (to - from <= Math.max(SEQUENTIAL_ROWS, columns.length)) {
+            return Question1b.countAtMost(rows, from, to, columns, x);
+        }
+        int mid = (from + to) >>> 1;
+        ParallelCount left = new ParallelCount(rows, from, mid, columns, x);
+        left.fork();
+        long right = new ParallelCount(rows, mid, to, columns, x).compute();
+        return left.join() + right;
+    }
+}
+
+// Lazy iterator over all products array1[i] * array2[j] in ascending order.
+// Each row i is already sorted: rising along array2 when array1[i] >= 0 and falling when it is
+// negative, so a negative row is simply read from the right end. The rows are merged with a binary
+// heap kept in primitive arrays whose slots are reused, so nextLong() allocates nothing.
+class ProductIterator implements PrimitiveIterator.OfLong {
+    private final int[] rowValues; // One factor per row (the shorter array)
+    private final int[] columnValues; // The other factor, read by each row's cursor
+    private final long[] keys; // Current product of each row
+    private final int[] cursors; // Current position of each row in columnValues
+    private final int[] heap; // Binary min-heap of row indices ordered by keys
+    private int size; // Number of rows that still have products left
+
+    // Constructor to start iterating over the products of two sorted arrays
+    public ProductIterator(int[] array1, int[] array2) {
+        // Rows over the shorter array keep the heap small
+        boolean swap = array2.length < array1.length;
+        this.rowValues = swap ? array2 : array1;
+        this.columnValues = swap ? array1 : array2;
+
+        int rows = columnValues.length == 0 ? 0 : rowValues.length;
+        keys = new long[rows];
+        cursors = new int[rows];
+        heap = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            // Start each row at its smallest product
+            cursors[row] = rowValues[row] >= 0 ? 0 : columnValues.length - 1;
+            keys[row] = (long) rowValues[row] * columnValues[cursors[row]];
+            heap[row] = row;
+        }
+        size = rows;
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return size > 0;
+    }
+
+    @Override
+    public long nextLong() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int row = heap[0];
+        long product = keys[row];
+
+        // Advance the row's cursor towards larger products, or drop the row when it is exhausted
+        boolean ascending = rowValues[row] >= 0;
+        int next = ascending ? cursors[row] + 1 : cursors[row] - 1;
+        if (next >= 0 && next < columnValues.length) {
+            cursors[row] = next;
+            keys[row] = (long) rowValues[row] * columnValues[next];
+        } else {
+            heap[0] = heap[--size];
+        }
+        siftDown(0);
+        return product;
+    }
+
+    // Move the entry at position i down until the heap property holds again
+    private void siftDown(int i) {
+        int row = heap[i];
+        long key = keys[row];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[heap[child]] >= key) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = row;
     }
 }
 
 // Output
 // 8
-// 0
\ No newline at end of file
+// 0
+// 8
+// 0
+// -4
+// 10000000000
+// Ordered products: -16 -8 -8 -4 0 0 6 12
+// Batch: [12, -16, 0, -4]
+// Mapped: 0
\ No newline at end of file
@@ -19,6 +19,15 @@
 // Explanation: You can allocate to the first, second and third employee with 1, 2, 1 rewards respectively.
 // The third employee gets 1 rewards because it satisfies the above two conditions.
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
 public class Question2a {
 
     // Function to calculate the minimum rewards needed for employees
@@ -54,6 +63,177 @@ public class Question2a {
         return totalRewards;
     }
 
+    // Streaming version: one pass over the ratings with constant extra memory
+    public static long minRewards(IntStream ratings) {
+        RewardCounter counter = new RewardCounter();
+        ratings.sequential().forEachOrdered(counter); // The slope counting depends on the order
+        return counter.total();
+    }
+
+    // Streaming version reading ratings as big-endian 32-bit ints, so files larger than the heap work
+    public static long minRewards(InputStream ratings) throws IOException {
+        RewardCounter counter = new RewardCounter();
+        byte[] buffer = new byte[1 << 16];
+        int filled = 0;
+        int read;
+        while ((read = ratings.read(buffer, filled, buffer.length - filled)) != -1) {
+            filled += read;
+            int whole = filled & ~3; // Bytes that form complete ints
+            for (int p = 0; p < whole; p += 4) {
+                counter.accept(((buffer[p] & 0xFF) << 24) | ((buffer[p + 1] & 0xFF) << 16)
+                        | ((buffer[p + 2] & 0xFF) << 8) | (buffer[p + 3] & 0xFF));
+            }
+            // Keep the bytes of a partially read int for the next read
+            System.arraycopy(buffer, whole, buffer, 0, filled - whole);
+            filled -= whole;
+        }
+        if (filled != 0) {
+            throw new IOException("Stream ended in the middle of a rating");
+        }
+        return counter.total();
+    }
+
+    // Chunks below this many ratings are not worth a separate task
+    private static final int MIN_CHUNK = 1 << 16;
+
+    // Parallel version on the common fork/join pool
+    public static long minRewardsParallel(int[] ratings) {
+        return minRewardsParallel(ratings, ForkJoinPool.commonPool());
+    }
+
+    // Parallel version that splits ratings into chunks and stitches their borders.
+    // Each employee needs 1 + max(L, R) rewards, where L is the length of the rising run ending at it
+    // and R the length of the falling run starting at it. Since L and R are both non-zero only on
+    // peaks, the total is n + sum(L) + sum(R) - sum over peaks of min(L, R).
+    // Pass 1 measures the runs touching each chunk border, a short sequential scan carries L
+    // across borders from the left and R from the right, and pass 2 sums every chunk on its own.
+    public static long minRewardsParallel(int[] ratings, ForkJoinPool pool) {
+        int n = ratings.length;
+        if (n == 0) {
+            return 0;
+        }
+        int chunks = (int) Math.max(1, Math.min(4L * pool.getParallelism(), (long) n / MIN_CHUNK));
+        int[] starts = new int[chunks + 1];
+        for (int c = 0; c <= chunks; c++) {
+            starts[c] = (int) ((long) n * c / chunks);
+        }
+
+        // Pass 1: rising run ending at each chunk's last element and falling run starting at its first,
+        // both measured inside the chunk only
+        int[] risingEnd = new int[chunks];
+        int[] fallingStart = new int[chunks];
+        pool.invoke(new ChunkTask(0, chunks, c -> {
+            int start = starts[c];
+            int end = starts[c + 1];
+            int rising = 0;
+            while (end - 1 - rising > start && ratings[end - 1 - rising] > ratings[end - 2 - rising]) {
+                rising++;
+            }
+            int falling = 0;
+            while (start + falling < end - 1 && ratings[start + falling] > ratings[start + falling + 1]) {
+                falling++;
+            }
+            risingEnd[c] = rising;
+            fallingStart[c] = falling;
+        }));
+
+        // Stitch: L at each chunk's first element (left to right), R at each chunk's last element (right to left)
+        long[] firstL = new long[chunks];
+        long[] lastR = new long[chunks];
+        long carry = 0; // L at the last element of the previous chunk
+        for (int c = 0; c < chunks; c++) {
+            int start = starts[c];
+            firstL[c] = start > 0 && ratings[start] > ratings[start - 1] ? carry + 1 : 0;
+            boolean allRising = risingEnd[c] == starts[c + 1] - 1 - start;
+            carry = allRising ? firstL[c] + risingEnd[c] : risingEnd[c];
+        }
+        carry = 0; // R at the first element of the next chunk
+        for (int c = chunks - 1; c >= 0; c--) {
+            int end = starts[c + 1];
+            lastR[c] = end < n && ratings[end - 1] > ratings[end] ? carry + 1 : 0;
+            boolean allFalling = fallingStart[c] == end - 1 - starts[c];
+            carry = allFalling ? lastR[c] + fallingStart[c] : fallingStart[c];
+        }
+
+        // Pass 2: every chunk's share of the total, now that the border runs are known
+        long[] partial = new long[chunks];
+        pool.invoke(new ChunkTask(0, chunks, c ->
+                partial[c] = chunkRewards(ratings, starts[c], starts[c + 1], firstL[c], lastR[c])));
+
+        long total = 0;
+        for (long value : partial) {
+            total += value;
+        }
+        return total;
+    }
+
+    // Rewards for ratings[start..end) given L at 'start' and R at 'end - 1'
+    private static long chunkRewards(int[] ratings, int start, int end, long firstL, long lastR) {
+        int n = ratings.length;
+        long total = end - start; // Everyone gets at least one reward
+
+        // Sum of L, and min(L, R) subtracted on every peak
+        long left = firstL;
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                left = ratings[i] > ratings[i - 1] ? left + 1 : 0;
+            }
+            total += left;
+            if (left > 0 && i + 1 < n && ratings[i] > ratings[i + 1]) {
+                // Peak: measure its falling run up to the chunk end, then continue with the carried R
+                int j = i;
+                while (j < end - 1 && ratings[j] > ratings[j + 1]) {
+                    j++;
+                }
+                long right = (j - i) + (j == end - 1 ? lastR : 0);
+                total -= Math.min(left, right);
+            }
+        }
+
+        // Sum of R
+        long right = lastR;
+        for (int i = end - 1; i >= start; i--) {
+            if (i < end - 1) {
+                right = ratings[i] > ratings[i + 1] ? right + 1 : 0;
+            }
+            total += right;
+        }
+        return total;
+    }
+
+    // Scaling benchmark of the parallel version from 1 to N threads
+    static void benchmark() {
+        int n = 50_000_000;
+        int[] ratings = new int[n];
+        Random random = new Random(42);
+        for (int i = 0; i < n; i++) {
+            ratings[i] = random.nextInt(100);
+        }
+        long expected = minRewards(IntStream.of(ratings));
+        int maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors());
+
+        System.out.println("threads\tms\tspeedup");
+        long baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                minRewardsParallel(ratings, pool); // Warm-up
+                long start = System.nanoTime();
+                long total = minRewardsParallel(ratings, pool);
+                long elapsed = System.nanoTime() - start;
+                if (total != expected) {
+                    throw new AssertionError("Parallel total " + total + " differs from " + expected);
+                }
+                if (threads == 1) {
+                    baseline = elapsed;
+                }
+                System.out.printf("%d\t%d\t%.2f%n", threads, elapsed / 1_000_000, (double) baseline / elapsed);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
     public static void main(String[] args) {
         // Test Case 1
         int[] ratings1 = {1, 0, 2};
@@ -62,9 +242,171 @@ public class Question2a {
         // Test Case 2
         int[] ratings2 = {1, 2, 2};
         System.out.println("Test Case 2: " + minRewards(ratings2)); // Output: 4
+
+        // Test Case 3: streaming from an IntStream
+        System.out.println("Test Case 3: " + minRewards(IntStream.of(1, 3, 2, 1))); // Output: 7
+
+        // Test Case 4: streaming binary ints from an InputStream
+        byte[] bytes = {0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 2}; // Ratings 1, 0, 2
+        try {
+            System.out.println("Test Case 4: " + minRewards(new ByteArrayInputStream(bytes))); // Output: 5
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // Test Case 5: parallel chunked version
+        System.out.println("Test Case 5: " + minRewardsParallel(new int[]{1, 3, 2, 1})); // Output: 7
+
+        // Test Case 6: incremental updates, ratings become [1, 3, 2]
+        RewardIndex index = new RewardIndex(ratings1);
+        index.updateRating(1, 3);
+        System.out.println("Test Case 6: " + index.totalRewards()); // Output: 4
+
+        if (args.length > 0 && args[0].equals("--bench")) {
+            benchmark();
+        }
+    }
+}
+
+// Mutable index over the ratings that keeps the minimum reward total up to date.
+// Each employee needs 1 + max(rising[i], falling[i]) rewards, where rising[i] is the length of the
+// rising run ending at i and falling[i] the length of the falling run starting at i. A rating change
+// can only alter rising[] to its right and falling[] to its left, and only until the run lengths
+// match their old values again, so an update costs time proportional to the runs it touches.
+class RewardIndex {
+    private final int[] ratings; // Own copy of the ratings
+    private final int[] rising; // Rising run length ending at each employee
+    private final int[] falling; // Falling run length starting at each employee
+    private long total; // Current minimum number of rewards
+
+    // Constructor to build the index from a ratings array
+    public RewardIndex(int[] ratings) {
+        int n = ratings.length;
+        this.ratings = ratings.clone();
+        this.rising = new int[n];
+        this.falling = new int[n];
+        for (int i = 1; i < n; i++) {
+            if (ratings[i] > ratings[i - 1]) {
+                rising[i] = rising[i - 1] + 1;
+            }
+        }
+        for (int i = n - 2; i >= 0; i--) {
+            if (ratings[i] > ratings[i + 1]) {
+                falling[i] = falling[i + 1] + 1;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            total += 1 + Math.max(rising[i], falling[i]);
+        }
+    }
+
+    // Minimum total rewards for the current ratings, O(1)
+    public long totalRewards() {
+        return total;
+    }
+
+    // Current rating of an employee
+    public int rating(int i) {
+        return ratings[i];
+    }
+
+    // Change one rating and repair only the runs that depend on it
+    public void updateRating(int i, int value) {
+        int n = ratings.length;
+        ratings[i] = value;
+
+        // Rising runs: rising[j] depends on rising[j - 1], so changes flow to the right.
+        // Position i + 1 must always be checked because its comparison with i changed.
+        for (int j = i; j < n; j++) {
+            int updated = j > 0 && ratings[j] > ratings[j - 1] ? rising[j - 1] + 1 : 0;
+            if (j > i && updated == rising[j]) {
+                break;
+            }
+            total -= Math.max(rising[j], falling[j]);
+            rising[j] = updated;
+            total += Math.max(rising[j], falling[j]);
+        }
+
+        // Falling runs: falling[j] depends on falling[j + 1], so changes flow to the left
+        for (int j = i; j >= 0; j--) {
+            int updated = j < n - 1 && ratings[j] > ratings[j + 1] ? falling[j + 1] + 1 : 0;
+            if (j < i && updated == falling[j]) {
+                break;
+            }
+            total -= Math.max(rising[j], falling[j]);
+            falling[j] = updated;
+            total += Math.max(rising[j], falling[j]);
+        }
+    }
+}
+
+// Fork/join task that runs an action for every chunk index in [from, to)
+class ChunkTask extends RecursiveAction {
+    private final int from, to;
+    private final IntConsumer action;
+
+    ChunkTask(int from, int to, IntConsumer action) {
+        this.from = from;
+        this.to = to;
+        this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from == 1) {
+            action.accept(from);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new ChunkTask(from, mid, action), new ChunkTask(mid, to, action));
+    }
+}
+
+// Single-pass reward counter using the up-slope / down-slope technique.
+// Every element of a rising run gets one more reward than the one before it. On a falling run
+// each new element pushes every element of the run up by one, which adds 'down' rewards; the
+// peak in front of the run is only pushed once the falling run gets as long as its rising run.
+class RewardCounter implements IntConsumer {
+    private long total; // Minimum rewards for the ratings seen so far
+    private long up; // Length of the current rising run
+    private long down; // Length of the current falling run
+    private long peak; // Length of the rising run that ended at the last peak
+    private int previous; // Previous rating
+    private boolean started; // Whether any rating has been seen
+
+    @Override
+    public void accept(int rating) {
+        if (!started) {
+            started = true;
+            total = 1;
+        } else if (rating > previous) {
+            up++;
+            down = 0;
+            peak = up;
+            total += 1 + up;
+        } else if (rating == previous) {
+            up = 0;
+            down = 0;
+            peak = 0;
+            total += 1;
+        } else {
+            up = 0;
+            down++;
+            total += 1 + down - (peak >= down ? 1 : 0);
+        }
+        previous = rating;
+    }
+
+    // Minimum rewards for all ratings seen so far
+    public long total() {
+        return total;
     }
 }
     
 // Outputs
 // Example 1: 5
-// Example 2: 4
\ No newline at end of file
+// Example 2: 4
+// Example 3: 7
+// Example 4: 5
+// Example 5: 7
+// Example 6: 4
\ No newline at end of file
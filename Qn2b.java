@@ -19,6 +19,18 @@
 
  
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
 public class Question2b {
 
     // Finds the pair of points with the smallest Manhattan distance
@@ -51,6 +63,303 @@ public class Question2b {
         return closestPair;
     }
 
+    // O(n log n) version of findClosestPair with the same lexicographic tie-breaking.
+    // Rotating by 45 degrees (u = x + y, v = x - y) turns the Manhattan distance into the
+    // Chebyshev distance max(|du|, |dv|), so a sweep over u only has to look at points inside a
+    // square window around each point. Points are pairwise at least the current best apart, so the
+    // window only ever holds a constant number of them.
+    public static int[] findClosestPairFast(int[] xCoords, int[] yCoords) {
+        int n = xCoords.length;
+        if (n < 2) {
+            return new int[2]; // Same result as the brute-force version
+        }
+
+        // Distance 0: identical points would crowd a single window, so resolve them by sorting
+        int[] duplicates = smallestDuplicatePair(xCoords, yCoords);
+        if (duplicates != null) {
+            return duplicates;
+        }
+
+        long[] u = new long[n];
+        long[] v = new long[n];
+        for (int i = 0; i < n; i++) {
+            u[i] = (long) xCoords[i] + yCoords[i];
+            v[i] = (long) xCoords[i] - yCoords[i];
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> u[i]));
+
+        // Active points keyed by (v << 31) | index; v needs 33 bits, so the key fits in a signed long
+        TreeSet<Long> active = new TreeSet<>();
+        long minDistance = Long.MAX_VALUE;
+        int bestI = -1, bestJ = -1;
+        int tail = 0; // Oldest point in the window
+        for (int p : order) {
+            // Drop points that are too far away along u, keeping ties since they may win lexicographically
+            while (u[p] - u[order[tail]] > minDistance) {
+                active.remove((v[order[tail]] << 31) | order[tail]);
+                tail++;
+            }
+
+            long reach = Math.min(minDistance, 1L << 33); // Wide enough to cover every v, and cannot overflow
+            long lowV = Math.max(v[p] - reach, -(1L << 32));
+            long highV = Math.min(v[p] + reach, (1L << 32) - 1);
+            for (long key : active.subSet(lowV << 31, true, (highV << 31) | Integer.MAX_VALUE, true)) {
+                int q = (int) (key & Integer.MAX_VALUE);
+                long distance = Math.max(u[p] - u[q], Math.abs(v[p] - v[q]));
+                int i = Math.min(p, q);
+                int j = Math.max(p, q);
+                if (distance < minDistance || (distance == minDistance
+                        && (i < bestI || (i == bestI && j < bestJ)))) {
+                    minDistance = distance;
+                    bestI = i;
+                    bestJ = j;
+                }
+            }
+            active.add((v[p] << 31) | p);
+        }
+        return new int[]{bestI, bestJ};
+    }
+
+    // Lexicographically smallest pair of identical points, or null if all points are distinct
+    private static int[] smallestDuplicatePair(int[] xCoords, int[] yCoords) {
+        Integer[] order = new Integer[xCoords.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> xCoords[i])
+                .thenComparingInt(i -> yCoords[i])
+                .thenComparingInt(i -> i));
+
+        int[] best = null;
+        for (int k = 1; k < order.length; k++) {
+            int i = order[k - 1];
+            int j = order[k];
+            // Only the first two indices of each group of equal points matter
+            boolean groupStart = k == 1 || xCoords[order[k - 2]] != xCoords[i] || yCoords[order[k - 2]] != yCoords[i];
+            if (groupStart && xCoords[i] == xCoords[j] && yCoords[i] == yCoords[j]
+                    && (best == null || i < best[0])) {
+                best = new int[]{i, j};
+            }
+        }
+        return best;
+    }
+
+    // Streams the k closest pairs (i, j) with i < j, by increasing distance and then lexicographically.
+    // Points are first grouped by location: pairs inside a group are at distance 0 and are offered
+    // straight from each group's sorted index list. The rotated sweep of findClosestPairFast then runs
+    // over one entry per location, with the window sized by the k-th best distance found so far (the
+    // top of a bounded max-heap), so piles of identical points never meet each other in the window.
+    // Memory is O(n + k): the sweep structures plus the heap, never the n^2 candidate pairs.
+    public static Stream<int[]> closestPairs(int[] xCoords, int[] yCoords, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        int n = xCoords.length;
+        long pairs = (long) n * (n - 1) / 2;
+        PairHeap heap = new PairHeap((int) Math.min(k, pairs));
+        if (heap.capacity() == 0) {
+            return Stream.empty();
+        }
+
+        // Indices sorted by (x, y, index): each location is a run of ascending indices
+        Integer[] byLocation = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byLocation[i] = i;
+        }
+        Arrays.sort(byLocation, Comparator.<Integer>comparingInt(i -> xCoords[i])
+                .thenComparingInt(i -> yCoords[i]).thenComparingInt(i -> i));
+        int[] members = new int[n];
+        int[] groupStart = new int[n + 1]; // Location g holds members[groupStart[g] .. groupStart[g + 1])
+        int groups = 0;
+        for (int r = 0; r < n; r++) {
+            members[r] = byLocation[r];
+            if (r == 0 || xCoords[members[r]] != xCoords[members[r - 1]] || yCoords[members[r]] != yCoords[members[r - 1]]) {
+                groupStart[groups++] = r;
+            }
+        }
+        groupStart[groups] = n;
+
+        // Distance 0 pairs, in lexicographic order within each location until one is rejected
+        for (int g = 0; g < groups; g++) {
+            for (int a = groupStart[g]; a < groupStart[g + 1] - 1; a++) {
+                int b = a + 1;
+                while (b < groupStart[g + 1] && heap.offer(0, members[a], members[b])) {
+                    b++;
+                }
+                if (b == a + 1) {
+                    break; // Later pairs of this location start with a larger index
+                }
+            }
+        }
+
+        long[] u = new long[groups];
+        long[] v = new long[groups];
+        Integer[] order = new Integer[groups];
+        for (int g = 0; g < groups; g++) {
+            int point = members[groupStart[g]];
+            u[g] = (long) xCoords[point] + yCoords[point];
+            v[g] = (long) xCoords[point] - yCoords[point];
+            order[g] = g;
+        }
+        Arrays.sort(order, Comparator.comparingLong(g -> u[g]));
+
+        TreeSet<Long> active = new TreeSet<>(); // Keys (v << 31) | location, as in findClosestPairFast
+        int tail = 0;
+        for (int p : order) {
+            long limit = heap.worstDistance(); // Pairs further apart than this can no longer enter the heap
+            while (u[p] - u[order[tail]] > limit) {
+                active.remove((v[order[tail]] << 31) | order[tail]);
+                tail++;
+            }
+
+            long reach = Math.min(limit, 1L << 33);
+            long lowV = Math.max(v[p] - reach, -(1L << 32));
+            long highV = Math.min(v[p] + reach, (1L << 32) - 1);
+            for (long key : active.subSet(lowV << 31, true, (highV << 31) | Integer.MAX_VALUE, true)) {
+                int q = (int) (key & Integer.MAX_VALUE);
+                offerBetween(heap, members, groupStart, p, q, Math.max(u[p] - u[q], Math.abs(v[p] - v[q])));
+            }
+            active.add((v[p] << 31) | p);
+        }
+
+        heap.sortAscending();
+        return IntStream.range(0, heap.size()).mapToObj(heap::pair);
+    }
+
+    // Offer the pairs between two locations at distance d in lexicographic order until one is rejected.
+    // Members of both are walked in index order; each pairs with the larger members of the other location.
+    private static void offerBetween(PairHeap heap, int[] members, int[] groupStart, int g, int h, long d) {
+        int a = groupStart[g], aEnd = groupStart[g + 1];
+        int b = groupStart[h], bEnd = groupStart[h + 1];
+        while (a < aEnd || b < bEnd) {
+            boolean fromG = b == bEnd || (a < aEnd && members[a] < members[b]);
+            int i = fromG ? members[a++] : members[b++];
+            int from = fromG ? b : a; // The other location's remaining members are all larger than i
+            int to = fromG ? bEnd : aEnd;
+            if (from == to) {
+                return; // Neither i nor any later member has a larger partner left
+            }
+            int t = from;
+            while (t < to && heap.offer(d, i, members[t])) {
+                t++;
+            }
+            if (t == from) {
+                return; // Every later pair starts with a larger index, so none can enter either
+            }
+        }
+    }
+
+    // Parallel divide and conquer version on the common fork/join pool
+    public static int[] findClosestPairParallel(int[] xCoords, int[] yCoords) {
+        return findClosestPairParallel(xCoords, yCoords, ForkJoinPool.commonPool());
+    }
+
+    // Parallel divide and conquer version of findClosestPair over the coordinate columns.
+    // Points are pre-sorted by x with a parallel sort of packed (x, index) keys, the two halves are
+    // solved as fork/join tasks, merged by y in parallel, and the strip around the split line is
+    // scanned in parallel chunks. Everything lives in int/long columns, so no object is created per point.
+    public static int[] findClosestPairParallel(int[] xCoords, int[] yCoords, ForkJoinPool pool) {
+        int n = xCoords.length;
+        if (n < 2) {
+            return new int[2]; // Same result as the brute-force version
+        }
+
+        // x needs 32 bits and the index 31, so (x << 31) | index sorts by x then index in a signed long
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) xCoords[i] << 31) | i;
+        }
+        Arrays.parallelSort(keys);
+
+        ClosestPairColumns columns = new ClosestPairColumns(n);
+        for (int k = 0; k < n; k++) {
+            int id = (int) (keys[k] & Integer.MAX_VALUE);
+            columns.splitX[k] = xCoords[id];
+            columns.x[k] = xCoords[id];
+            columns.y[k] = yCoords[id];
+            columns.id[k] = id;
+        }
+
+        // Distance 0: identical points are adjacent once runs of equal x are sorted by (y, index)
+        int[] duplicates = smallestDuplicatePair(columns, keys);
+        if (duplicates != null) {
+            return duplicates;
+        }
+
+        PairDistance best = pool.invoke(new ClosestPairTask(columns, 0, n));
+        return new int[]{best.i, best.j};
+    }
+
+    // Duplicate check for the parallel engine, reusing the key array as scratch space
+    private static int[] smallestDuplicatePair(ClosestPairColumns columns, long[] keys) {
+        int n = columns.x.length;
+        int bestI = -1, bestJ = -1;
+        for (int start = 0, end; start < n; start = end) {
+            end = start + 1;
+            while (end < n && columns.x[end] == columns.x[start]) {
+                end++;
+            }
+            if (end - start < 2) {
+                continue;
+            }
+            for (int k = start; k < end; k++) {
+                keys[k] = ((long) columns.y[k] << 31) | columns.id[k];
+            }
+            Arrays.sort(keys, start, end);
+            for (int k = start + 1; k < end; k++) {
+                // First two indices of each group of equal y, compared by the smaller index
+                boolean groupStart = k == start + 1 || keys[k - 2] >> 31 != keys[k - 1] >> 31;
+                if (groupStart && keys[k] >> 31 == keys[k - 1] >> 31) {
+                    int i = (int) (keys[k - 1] & Integer.MAX_VALUE);
+                    if (bestI < 0 || i < bestI) {
+                        bestI = i;
+                        bestJ = (int) (keys[k] & Integer.MAX_VALUE);
+                    }
+                }
+            }
+        }
+        return bestI < 0 ? null : new int[]{bestI, bestJ};
+    }
+
+    // Speedup of the parallel engine by core count
+    static void benchmark() {
+        int n = 4_000_000;
+        Random random = new Random(42);
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextInt();
+            ys[i] = random.nextInt();
+        }
+        int[] expected = findClosestPairFast(xs, ys);
+        int maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors());
+
+        System.out.println("threads\tms\tspeedup");
+        long baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                findClosestPairParallel(xs, ys, pool); // Warm-up
+                long start = System.nanoTime();
+                int[] pair = findClosestPairParallel(xs, ys, pool);
+                long elapsed = System.nanoTime() - start;
+                if (!Arrays.equals(pair, expected)) {
+                    throw new AssertionError("Parallel pair " + Arrays.toString(pair) + " differs");
+                }
+                if (threads == 1) {
+                    baseline = elapsed;
+                }
+                System.out.printf("%d\t%d\t%.2f%n", threads, elapsed / 1_000_000, (double) baseline / elapsed);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
     public static void main(String[] args) {
         // Example input coordinates
         int[] xCoords = {1, 2, 3, 2, 4};
@@ -61,9 +370,886 @@ public class Question2b {
 
         // Display the result
         System.out.println("Closest Pair: [" + closestPair[0] + ", " + closestPair[1] + "]");
+
+        // Same example with the O(n log n) engine
+        int[] fastPair = findClosestPairFast(xCoords, yCoords);
+        System.out.println("Closest Pair (fast): [" + fastPair[0] + ", " + fastPair[1] + "]");
+
+        // Property test: the fast engine must agree with brute force on random inputs
+        Random random = new Random(7);
+        for (int test = 0; test < 2_000; test++) {
+            int n = 2 + random.nextInt(40);
+            int range = 1 + random.nextInt(50); // Small ranges force ties and duplicates
+            int[] xs = new int[n];
+            int[] ys = new int[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = random.nextInt(range) - range / 2;
+                ys[i] = random.nextInt(range) - range / 2;
+            }
+            int[] expected = findClosestPair(xs, ys);
+            if (!Arrays.equals(expected, findClosestPairFast(xs, ys))
+                    || !Arrays.equals(expected, findClosestPairParallel(xs, ys))) {
+                throw new AssertionError("Mismatch for " + Arrays.toString(xs) + " " + Arrays.toString(ys));
+            }
+        }
+        System.out.println("Random tests passed");
+
+        // Dynamic index over the example points
+        PointIndex index = new PointIndex();
+        for (int i = 0; i < xCoords.length; i++) {
+            index.insert(xCoords[i], yCoords[i]);
+        }
+        int[] indexedPair = index.closestPair();
+        System.out.println("Indexed Pair: [" + indexedPair[0] + ", " + indexedPair[1] + "]"); // Output: [0, 3]
+        System.out.println("Nearest to (4, 2): " + index.nearest(4, 2)); // Output: 4
+        index.delete(3);
+        indexedPair = index.closestPair();
+        System.out.println("After deleting 3: [" + indexedPair[0] + ", " + indexedPair[1] + "]"); // Output: [0, 1]
+
+        // Sliding window: delete in insertion order, the index must agree with brute force over the live points
+        PointIndex window = new PointIndex();
+        int windowSize = 40;
+        int[] windowXs = new int[2_000];
+        int[] windowYs = new int[2_000];
+        for (int id = 0; id < windowXs.length; id++) {
+            windowXs[id] = random.nextInt(60);
+            windowYs[id] = random.nextInt(60);
+            window.insert(windowXs[id], windowYs[id]);
+            if (id >= windowSize) {
+                window.delete(id - windowSize);
+            }
+            int oldest = Math.max(0, id - windowSize + 1);
+            int[] live = findClosestPair(Arrays.copyOfRange(windowXs, oldest, id + 1), Arrays.copyOfRange(windowYs, oldest, id + 1));
+            int[] indexed = window.closestPair();
+            if (id > oldest && (indexed == null || indexed[0] != live[0] + oldest || indexed[1] != live[1] + oldest)) {
+                throw new AssertionError("Sliding window mismatch after inserting id " + id);
+            }
+        }
+        System.out.println("Sliding window tests passed");
+
+        // The three closest pairs of the example
+        StringBuilder closest = new StringBuilder("Closest 3 Pairs:");
+        closestPairs(xCoords, yCoords, 3).forEach(pair -> closest.append(" [").append(pair[0]).append(", ").append(pair[1]).append(']'));
+        System.out.println(closest); // Output: [0, 3] [1, 3] [0, 1]
+
+        if (args.length > 0 && args[0].equals("--bench")) {
+            benchmark();
+        }
+    }
+}
+
+// Bounded max-heap of pairs in primitive arrays, ordered by (distance, i, j).
+// The top is the worst pair kept, so a better candidate simply replaces it.
+class PairHeap {
+    private final long[] distance;
+    private final int[] first, second;
+    private int size;
+
+    PairHeap(int capacity) {
+        distance = new long[capacity];
+        first = new int[capacity];
+        second = new int[capacity];
+    }
+
+    int capacity() {
+        return distance.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Distance of the worst kept pair once the heap is full, otherwise no limit
+    long worstDistance() {
+        return size < distance.length ? Long.MAX_VALUE : distance[0];
+    }
+
+    // Keep the pair if the heap has room or it beats the worst kept pair, returns whether it was kept
+    boolean offer(long d, int i, int j) {
+        if (size < distance.length) {
+            set(size, d, i, j);
+            siftUp(size++);
+            return true;
+        } else if (size > 0 && less(d, i, j, 0)) {
+            set(0, d, i, j);
+            siftDown(0, size);
+            return true;
+        }
+        return false;
+    }
+
+    // Heap sort in place, leaving the pairs in ascending order
+    void sortAscending() {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    // Pair at position k as {i, j}
+    int[] pair(int k) {
+        return new int[]{first[k], second[k]};
+    }
+
+    private boolean less(long d, int i, int j, int k) {
+        return d < distance[k] || (d == distance[k] && (i < first[k] || (i == first[k] && j < second[k])));
+    }
+
+    private void siftUp(int k) {
+        while (k > 0) {
+            int parent = (k - 1) / 2;
+            if (!less(distance[parent], first[parent], second[parent], k)) {
+                break;
+            }
+            swap(k, parent);
+            k = parent;
+        }
+    }
+
+    private void siftDown(int k, int end) {
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= end) {
+                break;
+            }
+            if (child + 1 < end && less(distance[child], first[child], second[child], child + 1)) {
+                child++;
+            }
+            if (!less(distance[k], first[k], second[k], child)) {
+                break;
+            }
+            swap(k, child);
+            k = child;
+        }
+    }
+
+    private void set(int k, long d, int i, int j) {
+        distance[k] = d;
+        first[k] = i;
+        second[k] = j;
+    }
+
+    private void swap(int a, int b) {
+        long d = distance[a];
+        int i = first[a];
+        int j = second[a];
+        set(a, distance[b], first[b], second[b]);
+        set(b, d, i, j);
+    }
+}
+
+// Coordinate columns shared by all tasks of the parallel closest-pair search
+class ClosestPairColumns {
+    final int[] splitX; // x in sorted order, read-only, used to find each split line
+    final int[] x, y, id; // Point columns, each task leaves its range sorted by y
+    final int[] scratchX, scratchY, scratchId; // Merge buffer, then strip buffer
+
+    ClosestPairColumns(int n) {
+        splitX = new int[n];
+        x = new int[n];
+        y = new int[n];
+        id = new int[n];
+        scratchX = new int[n];
+        scratchY = new int[n];
+        scratchId = new int[n];
+    }
+}
+
+// Best pair found so far: smallest distance, then smallest (i, j) with i < j
+class PairDistance {
+    long distance = Long.MAX_VALUE;
+    int i = -1, j = -1;
+
+    // Keep (a, b) at the given distance if it beats the current pair
+    void offer(long d, int a, int b) {
+        int first = Math.min(a, b);
+        int second = Math.max(a, b);
+        if (d < distance || (d == distance && (first < i || (first == i && second < j)))) {
+            distance = d;
+            i = first;
+            j = second;
+        }
+    }
+
+    // Keep the other pair if it beats this one
+    void offer(PairDistance other) {
+        if (other.i >= 0) {
+            offer(other.distance, other.i, other.j);
+        }
+    }
+}
+
+// Closest pair of the points at sorted positions [from, to); leaves that range sorted by y
+class ClosestPairTask extends RecursiveTask<PairDistance> {
+    static final int LEAF = 16; // Ranges up to this size are solved by brute force
+    static final int PARALLEL = 1 << 13; // Ranges below this size are not split into new tasks
+
+    private final ClosestPairColumns c;
+    private final int from, to;
+
+    ClosestPairTask(ClosestPairColumns columns, int from, int to) {
+        this.c = columns;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected PairDistance compute() {
+        if (to - from <= LEAF) {
+            return leaf();
+        }
+        int mid = (from + to) >>> 1;
+        int splitLine = c.splitX[mid];
+        ClosestPairTask left = new ClosestPairTask(c, from, mid);
+        ClosestPairTask right = new ClosestPairTask(c, mid, to);
+        PairDistance best;
+        if (to - from >= PARALLEL) {
+            left.fork();
+            best = right.compute();
+            best.offer(left.join());
+        } else {
+            best = left.compute();
+            best.offer(right.compute());
+        }
+
+        // Merge both halves by y into the scratch columns, then copy back
+        new MergeTask(c, from, mid, mid, to, from).invoke();
+        System.arraycopy(c.scratchX, from, c.x, from, to - from);
+        System.arraycopy(c.scratchY, from, c.y, from, to - from);
+        System.arraycopy(c.scratchId, from, c.id, from, to - from);
+
+        // Collect the strip around the split line, still in y order
+        long width = best.distance;
+        int stripEnd = from;
+        for (int k = from; k < to; k++) {
+            if (Math.abs((long) c.x[k] - splitLine) <= width) {
+                c.scratchX[stripEnd] = c.x[k];
+                c.scratchY[stripEnd] = c.y[k];
+                c.scratchId[stripEnd] = c.id[k];
+                stripEnd++;
+            }
+        }
+        best.offer(new StripTask(c, from, stripEnd, stripEnd, width).invoke());
+        return best;
+    }
+
+    // Brute force for a small range, then insertion sort it by y
+    private PairDistance leaf() {
+        PairDistance best = new PairDistance();
+        for (int a = from; a < to; a++) {
+            for (int b = a + 1; b < to; b++) {
+                long d = Math.abs((long) c.x[a] - c.x[b]) + Math.abs((long) c.y[a] - c.y[b]);
+                best.offer(d, c.id[a], c.id[b]);
+            }
+        }
+        for (int a = from + 1; a < to; a++) {
+            int px = c.x[a], py = c.y[a], pid = c.id[a];
+            int b = a - 1;
+            while (b >= from && c.y[b] > py) {
+                c.x[b + 1] = c.x[b];
+                c.y[b + 1] = c.y[b];
+                c.id[b + 1] = c.id[b];
+                b--;
+            }
+            c.x[b + 1] = px;
+            c.y[b + 1] = py;
+            c.id[b + 1] = pid;
+        }
+        return best;
+    }
+}
+
+// Parallel merge of the y-sorted runs [from1, to1) and [from2, to2) into the scratch columns at 'at'
+class MergeTask extends RecursiveAction {
+    private static final int SEQUENTIAL = 1 << 14; // Merges below this size run directly
+
+    private final ClosestPairColumns c;
+    private final int from1, to1, from2, to2, at;
+
+    MergeTask(ClosestPairColumns columns, int from1, int to1, int from2, int to2, int at) {
+        this.c = columns;
+        this.from1 = from1;
+        this.to1 = to1;
+        this.from2 = from2;
+        this.to2 = to2;
+        this.at = at;
+    }
+
+    @Override
+    protected void compute() {
+        int length1 = to1 - from1;
+        int length2 = to2 - from2;
+        if (length1 + length2 <= SEQUENTIAL) {
+            merge();
+            return;
+        }
+        if (length1 < length2) {
+            // Always split the longer run
+            new MergeTask(c, from2, to2, from1, to1, at).compute();
+            return;
+        }
+        // Split the longer run in the middle and find the matching split in the other by binary search
+        int mid1 = (from1 + to1) >>> 1;
+        int pivot = c.y[mid1];
+        int low = from2, high = to2;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (c.y[mid] < pivot) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int mid2 = low;
+        int middle = at + (mid1 - from1) + (mid2 - from2);
+        invokeAll(new MergeTask(c, from1, mid1, from2, mid2, at),
+                new MergeTask(c, mid1, to1, mid2, to2, middle));
+    }
+
+    // Sequential two-way merge
+    private void merge() {
+        int a = from1, b = from2, out = at;
+        while (a < to1 || b < to2) {
+            int k = b >= to2 || (a < to1 && c.y[a] <= c.y[b]) ? a++ : b++;
+            c.scratchX[out] = c.x[k];
+            c.scratchY[out] = c.y[k];
+            c.scratchId[out] = c.id[k];
+            out++;
+        }
+    }
+}
+
+// Scan of the strip in the scratch columns, which ends at 'stripTo', comparing each point in
+// [from, to) with the following points that are at most 'width' higher
+class StripTask extends RecursiveTask<PairDistance> {
+    private static final int SEQUENTIAL = 1 << 12; // Strips below this size are scanned directly
+
+    private final ClosestPairColumns c;
+    private final int from, to, stripTo;
+    private final long width;
+
+    StripTask(ClosestPairColumns columns, int from, int to, int stripTo, long width) {
+        this.c = columns;
+        this.from = from;
+        this.to = to;
+        this.stripTo = stripTo;
+        this.width = width;
+    }
+
+    @Override
+    protected PairDistance compute() {
+        if (to - from > SEQUENTIAL) {
+            int mid = (from + to) >>> 1;
+            StripTask upper = new StripTask(c, mid, to, stripTo, width);
+            upper.fork();
+            PairDistance best = new StripTask(c, from, mid, stripTo, width).compute();
+            best.offer(upper.join());
+            return best;
+        }
+        PairDistance best = new PairDistance();
+        for (int a = from; a < to; a++) {
+            // Inclusive bound so that pairs tied with the best distance are still compared
+            for (int b = a + 1; b < stripTo && (long) c.scratchY[b] - c.scratchY[a] <= width; b++) {
+                long d = Math.abs((long) c.scratchX[a] - c.scratchX[b]) + ((long) c.scratchY[b] - c.scratchY[a]);
+                best.offer(d, c.scratchId[a], c.scratchId[b]);
+            }
+        }
+        return best;
+    }
+}
+
+// Dynamic spatial index for Manhattan nearest-point queries.
+// Points live in primitive coordinate columns. Each distinct location is one node of a k-d tree
+// whose subtrees carry bounding boxes, so a query only descends into boxes that could still hold
+// a closer point, however far away that point is. Inserts keep the tree balanced scapegoat-style
+// by rebuilding the first subtree that gets lopsided, and emptied locations stay as tombstones
+// until they make up half the tree. Points at the same location share a node, chained in id order.
+//
+// The closest pair is maintained incrementally. Every point p keeps a candidate: its previous
+// duplicate if it has one, otherwise its nearest live point with a smaller id. An indexed heap
+// orders the points by (candidate distance, candidate, p). The lexicographically smallest closest
+// pair (i, j) is then always j's entry, so it sits on top. An insert only adds the new point's
+// entry, and a delete only repairs the points whose candidate was the deleted one.
+class PointIndex {
+    private static final double BALANCE = 0.75; // Largest share of a subtree allowed in one child
+    private static final int NONE = -1;
+
+    // Columns per point id
+    private int[] xCoords = new int[16]; // x coordinate per point id
+    private int[] yCoords = new int[16]; // y coordinate per point id
+    private boolean[] alive = new boolean[16]; // Whether the id is still in the index
+    private int[] location = new int[16]; // Tree node of the point's location
+    private int[] previousDuplicate = new int[16]; // Live ids at the same location, in id order
+    private int[] nextDuplicate = new int[16];
+    private int[] candidate = new int[16]; // Candidate partner (smaller id) or NONE
+    private long[] candidateDistance = new long[16];
+    private int[] dependentHead = new int[16]; // First point whose candidate is this id
+    private int[] dependentNext = new int[16], dependentPrevious = new int[16];
+    private int[] heapPosition = new int[16]; // Slot in pairHeap, or NONE
+    private int[] pairHeap = new int[16]; // Point ids with a candidate, min-heap by candidate pair
+    private int heapSize;
+    private int nextId; // Ids are handed out in insertion order
+    private int size; // Number of live points
+
+    // Tree nodes, one per distinct location, packed NODE_FIELDS ints apart so that a node visit
+    // touches one or two cache lines. A node is referred to by the offset of its first field.
+    private static final int X = 0, Y = 1; // Location
+    private static final int FIRST_ID = 2, LAST_ID = 3; // Live ids at the location, NONE when empty
+    private static final int LEFT = 4, RIGHT = 5, PARENT = 6;
+    private static final int SPLIT_ON_X = 7; // 1 if the node splits on x, 0 on y
+    private static final int SUBTREE_SIZE = 8; // Nodes in the subtree, tombstones included
+    private static final int MIN_X = 9, MAX_X = 10, MIN_Y = 11, MAX_Y = 12; // Bounding box of the subtree
+    private static final int MIN_ID = 13; // Smallest live id in the subtree, Integer.MAX_VALUE if none
+    private static final int NODE_FIELDS = 16;
+    private int[] tree = new int[16 * NODE_FIELDS];
+    private int root = NONE;
+    private int nodeSlots; // Node slots handed out so far, times NODE_FIELDS
+    private int[] freeNodes = new int[16]; // Slots of nodes dropped by a rebuild
+    private int freeCount;
+    private int treeNodes; // Nodes linked into the tree
+    private int emptyNodes; // Tombstones among them
+    private final Map<Long, Integer> nodeAt = new HashMap<>(); // Tree node by packed location
+
+    // Scratch state for queries and rebuilds
+    private long bestDistance;
+    private int bestId;
+    private int[] rebuildNodes = new int[16];
+    private long[] rebuildKeys = new long[16];
+
+    // Insert a point and return its id
+    public int insert(int x, int y) {
+        int id = nextId++;
+        if (id == xCoords.length) {
+            growPoints(id * 2);
+        }
+        xCoords[id] = x;
+        yCoords[id] = y;
+        alive[id] = true;
+        candidate[id] = NONE;
+        dependentHead[id] = NONE;
+        heapPosition[id] = NONE;
+        nextDuplicate[id] = NONE;
+        previousDuplicate[id] = NONE;
+        size++;
+
+        Integer existing = nodeAt.get(locationKey(x, y));
+        int node;
+        if (existing == null) {
+            node = newNode(x, y, id);
+            linkNode(node);
+        } else if (tree[existing + FIRST_ID] == NONE) {
+            node = existing; // Tombstone still in the tree, its box already covers the location
+            tree[node + FIRST_ID] = tree[node + LAST_ID] = id;
+            emptyNodes--;
+            refreshMinId(node);
+        } else {
+            node = existing;
+            previousDuplicate[id] = tree[node + LAST_ID];
+            nextDuplicate[tree[node + LAST_ID]] = id;
+            tree[node + LAST_ID] = id;
+        }
+        location[id] = node;
+
+        // Every other point has a smaller id, so only the new point needs a candidate
+        assignCandidate(id);
+        return id;
+    }
+
+    // Remove a point by id
+    public void delete(int id) {
+        if (id < 0 || id >= nextId || !alive[id]) {
+            throw new IllegalArgumentException("No point with id " + id);
+        }
+        alive[id] = false;
+        size--;
+        if (candidate[id] != NONE) {
+            unlinkDependent(id);
+            removeFromHeap(id);
+            candidate[id] = NONE;
+        }
+
+        // Leave the chain of points at the same location
+        int node = location[id];
+        int before = previousDuplicate[id];
+        int after = nextDuplicate[id];
+        if (before == NONE) tree[node + FIRST_ID] = after; else nextDuplicate[before] = after;
+        if (after == NONE) tree[node + LAST_ID] = before; else previousDuplicate[after] = before;
+        if (tree[node + FIRST_ID] == NONE) {
+            emptyNodes++;
+        }
+        if (before == NONE) {
+            refreshMinId(node); // The location's smallest id changed
+        }
+
+        // Only the points that were paired with this one lose their candidate
+        int dependent = dependentHead[id];
+        dependentHead[id] = NONE;
+        while (dependent != NONE) {
+            int next = dependentNext[dependent];
+            assignCandidate(dependent);
+            dependent = next;
+        }
+
+        if (2 * emptyNodes > treeNodes) {
+            rebuild(root); // Drop the tombstones and rebalance
+        }
+    }
+
+    // Id of the live point closest to (x, y), smallest id on ties, or -1 if the index is empty
+    public int nearest(int x, int y) {
+        return nearestBelow(x, y, nextId);
+    }
+
+    // Lexicographically smallest closest pair of live ids, or null with fewer than two points
+    public int[] closestPair() {
+        if (heapSize == 0) {
+            return null;
+        }
+        int top = pairHeap[0];
+        return new int[]{candidate[top], top};
+    }
+
+    // Number of live points
+    public int size() {
+        return size;
+    }
+
+    // Give point p its candidate and put it in the heap (p must not be in any dependent list)
+    private void assignCandidate(int p) {
+        int partner = previousDuplicate[p];
+        if (partner == NONE) {
+            partner = nearestBelow(xCoords[p], yCoords[p], p);
+        }
+        candidate[p] = partner;
+        if (partner == NONE) {
+            removeFromHeap(p);
+            return;
+        }
+        candidateDistance[p] = distance(partner, xCoords[p], yCoords[p]);
+        dependentPrevious[p] = NONE;
+        dependentNext[p] = dependentHead[partner];
+        if (dependentHead[partner] != NONE) {
+            dependentPrevious[dependentHead[partner]] = p;
+        }
+        dependentHead[partner] = p;
+
+        if (heapPosition[p] == NONE) {
+            heapPosition[p] = heapSize;
+            pairHeap[heapSize++] = p;
+        }
+        siftUp(heapPosition[p]);
+        siftDown(heapPosition[p]);
+    }
+
+    // Take p out of its candidate's dependent list
+    private void unlinkDependent(int p) {
+        int before = dependentPrevious[p];
+        int after = dependentNext[p];
+        if (before == NONE) dependentHead[candidate[p]] = after; else dependentNext[before] = after;
+        if (after != NONE) dependentPrevious[after] = before;
+    }
+
+    // Nearest live point with id < idLimit, smallest id on ties, or NONE
+    private int nearestBelow(int x, int y, int idLimit) {
+        bestDistance = Long.MAX_VALUE;
+        bestId = Integer.MAX_VALUE;
+        if (root != NONE) {
+            search(root, boxDistance(root, x, y), x, y, idLimit);
+        }
+        return bestId == Integer.MAX_VALUE ? NONE : bestId;
+    }
+
+    // Branch and bound over the k-d tree, nearer child box first; bound is the node's box distance
+    private void search(int node, long bound, int x, int y, int idLimit) {
+        int lowestId = tree[node + MIN_ID];
+        if (lowestId >= idLimit || bound > bestDistance || (bound == bestDistance && lowestId >= bestId)) {
+            return; // Nothing in this subtree can beat the best point so far
+        }
+        int id = tree[node + FIRST_ID]; // The smallest id is the only one a tie can prefer
+        if (id != NONE && id < idLimit) {
+            long d = Math.abs((long) tree[node + X] - x) + Math.abs((long) tree[node + Y] - y);
+            if (d < bestDistance || (d == bestDistance && id < bestId)) {
+                bestDistance = d;
+                bestId = id;
+            }
+        }
+        int near = tree[node + LEFT];
+        int far = tree[node + RIGHT];
+        long nearBound = near == NONE ? Long.MAX_VALUE : boxDistance(near, x, y);
+        long farBound = far == NONE ? Long.MAX_VALUE : boxDistance(far, x, y);
+        if (farBound < nearBound) {
+            int swap = near;
+            near = far;
+            far = swap;
+            long swapBound = nearBound;
+            nearBound = farBound;
+            farBound = swapBound;
+        }
+        if (near != NONE) search(near, nearBound, x, y, idLimit);
+        if (far != NONE) search(far, farBound, x, y, idLimit);
+    }
+
+    // Recompute MIN_ID from a node up to the root, stopping once an ancestor is unchanged
+    private void refreshMinId(int node) {
+        for (int up = node; up != NONE; up = tree[up + PARENT]) {
+            int first = tree[up + FIRST_ID];
+            int lowest = first == NONE ? Integer.MAX_VALUE : first;
+            int left = tree[up + LEFT];
+            int right = tree[up + RIGHT];
+            if (left != NONE) lowest = Math.min(lowest, tree[left + MIN_ID]);
+            if (right != NONE) lowest = Math.min(lowest, tree[right + MIN_ID]);
+            if (lowest == tree[up + MIN_ID]) {
+                return;
+            }
+            tree[up + MIN_ID] = lowest;
+        }
+    }
+
+    // Manhattan distance from (x, y) to the bounding box of a subtree
+    private long boxDistance(int node, int x, int y) {
+        long dx = Math.max(0, Math.max((long) tree[node + MIN_X] - x, (long) x - tree[node + MAX_X]));
+        long dy = Math.max(0, Math.max((long) tree[node + MIN_Y] - y, (long) y - tree[node + MAX_Y]));
+        return dx + dy;
+    }
+
+    // Take a free node slot for a new location holding one point
+    private int newNode(int x, int y, int id) {
+        int node;
+        if (freeCount > 0) {
+            node = freeNodes[--freeCount];
+        } else {
+            node = nodeSlots;
+            nodeSlots += NODE_FIELDS;
+            if (nodeSlots > tree.length) {
+                tree = Arrays.copyOf(tree, tree.length * 2);
+            }
+        }
+        tree[node + X] = tree[node + MIN_X] = tree[node + MAX_X] = x;
+        tree[node + Y] = tree[node + MIN_Y] = tree[node + MAX_Y] = y;
+        tree[node + FIRST_ID] = tree[node + LAST_ID] = tree[node + MIN_ID] = id;
+        tree[node + LEFT] = tree[node + RIGHT] = NONE;
+        tree[node + SUBTREE_SIZE] = 1;
+        return node;
+    }
+
+    // Hang a new node under the tree and rebuild the scapegoat subtree if it ended up too deep
+    private void linkNode(int node) {
+        nodeAt.put(locationKey(tree[node + X], tree[node + Y]), node);
+        treeNodes++;
+        if (root == NONE) {
+            root = node;
+            tree[node + PARENT] = NONE;
+            tree[node + SPLIT_ON_X] = 1;
+            return;
+        }
+        int current = root;
+        int depth = 1;
+        while (true) {
+            tree[current + SUBTREE_SIZE]++;
+            tree[current + MIN_X] = Math.min(tree[current + MIN_X], tree[node + X]);
+            tree[current + MAX_X] = Math.max(tree[current + MAX_X], tree[node + X]);
+            tree[current + MIN_Y] = Math.min(tree[current + MIN_Y], tree[node + Y]);
+            tree[current + MAX_Y] = Math.max(tree[current + MAX_Y], tree[node + Y]);
+            tree[current + MIN_ID] = Math.min(tree[current + MIN_ID], tree[node + MIN_ID]);
+            boolean goLeft = tree[current + SPLIT_ON_X] == 1 ? tree[node + X] < tree[current + X] : tree[node + Y] < tree[current + Y];
+            int child = goLeft ? tree[current + LEFT] : tree[current + RIGHT];
+            if (child == NONE) {
+                if (goLeft) tree[current + LEFT] = node; else tree[current + RIGHT] = node;
+                tree[node + PARENT] = current;
+                tree[node + SPLIT_ON_X] = 1 - tree[current + SPLIT_ON_X];
+                break;
+            }
+            current = child;
+            depth++;
+        }
+
+        if (depth > Math.log(treeNodes) / Math.log(1 / BALANCE)) {
+            // Some ancestor has a child holding more than BALANCE of its subtree
+            int child = node;
+            int up = tree[node + PARENT];
+            while (up != NONE && tree[child + SUBTREE_SIZE] <= BALANCE * tree[up + SUBTREE_SIZE]) {
+                child = up;
+                up = tree[up + PARENT];
+            }
+            if (up != NONE) {
+                rebuild(up);
+            }
+        }
+    }
+
+    // Rebuild a subtree into a balanced one, dropping the tombstones in it
+    private void rebuild(int top) {
+        int above = tree[top + PARENT];
+        boolean wasLeft = above != NONE && tree[above + LEFT] == top;
+        boolean axis = tree[top + SPLIT_ON_X] == 1;
+        int before = tree[top + SUBTREE_SIZE];
+        if (rebuildNodes.length < before) {
+            rebuildNodes = new int[before];
+            rebuildKeys = new long[before];
+        }
+        int count = collect(top, 0);
+        int newTop = build(0, count, axis, above);
+        if (above == NONE) {
+            root = newTop;
+        } else if (wasLeft) {
+            tree[above + LEFT] = newTop;
+        } else {
+            tree[above + RIGHT] = newTop;
+        }
+        for (int up = above; up != NONE; up = tree[up + PARENT]) {
+            tree[up + SUBTREE_SIZE] -= before - count;
+        }
+    }
+
+    // Gather the non-empty nodes of a subtree into rebuildNodes and free the tombstones
+    private int collect(int node, int count) {
+        if (node == NONE) {
+            return count;
+        }
+        count = collect(tree[node + LEFT], count);
+        count = collect(tree[node + RIGHT], count);
+        if (tree[node + FIRST_ID] != NONE) {
+            rebuildNodes[count++] = node;
+        } else {
+            nodeAt.remove(locationKey(tree[node + X], tree[node + Y]));
+            if (freeCount == freeNodes.length) {
+                freeNodes = Arrays.copyOf(freeNodes, freeCount * 2);
+            }
+            freeNodes[freeCount++] = node;
+            treeNodes--;
+            emptyNodes--;
+        }
+        return count;
+    }
+
+    // Build a balanced subtree from rebuildNodes[from, to) by median splits
+    private int build(int from, int to, boolean onX, int above) {
+        if (from >= to) {
+            return NONE;
+        }
+        for (int k = from; k < to; k++) {
+            int node = rebuildNodes[k];
+            rebuildKeys[k] = ((long) (onX ? tree[node + X] : tree[node + Y]) << 32) | node;
+        }
+        Arrays.sort(rebuildKeys, from, to);
+        for (int k = from; k < to; k++) {
+            rebuildNodes[k] = (int) rebuildKeys[k];
+        }
+        int mid = (from + to) >>> 1;
+        int node = rebuildNodes[mid];
+        tree[node + PARENT] = above;
+        tree[node + SPLIT_ON_X] = onX ? 1 : 0;
+        tree[node + LEFT] = build(from, mid, !onX, node);
+        tree[node + RIGHT] = build(mid + 1, to, !onX, node);
+        tree[node + SUBTREE_SIZE] = to - from;
+        tree[node + MIN_X] = tree[node + MAX_X] = tree[node + X];
+        tree[node + MIN_Y] = tree[node + MAX_Y] = tree[node + Y];
+        tree[node + MIN_ID] = tree[node + FIRST_ID];
+        absorb(node, tree[node + LEFT]);
+        absorb(node, tree[node + RIGHT]);
+        return node;
+    }
+
+    // Widen a node's box and id bound to cover one of its children
+    private void absorb(int node, int child) {
+        if (child != NONE) {
+            tree[node + MIN_X] = Math.min(tree[node + MIN_X], tree[child + MIN_X]);
+            tree[node + MAX_X] = Math.max(tree[node + MAX_X], tree[child + MAX_X]);
+            tree[node + MIN_Y] = Math.min(tree[node + MIN_Y], tree[child + MIN_Y]);
+            tree[node + MAX_Y] = Math.max(tree[node + MAX_Y], tree[child + MAX_Y]);
+            tree[node + MIN_ID] = Math.min(tree[node + MIN_ID], tree[child + MIN_ID]);
+        }
+    }
+
+    // Heap order: candidate distance, then candidate id, then the point's own id
+    private boolean pairBefore(int p, int q) {
+        if (candidateDistance[p] != candidateDistance[q]) {
+            return candidateDistance[p] < candidateDistance[q];
+        }
+        return candidate[p] != candidate[q] ? candidate[p] < candidate[q] : p < q;
+    }
+
+    private void removeFromHeap(int p) {
+        int slot = heapPosition[p];
+        if (slot == NONE) {
+            return;
+        }
+        heapPosition[p] = NONE;
+        int last = pairHeap[--heapSize];
+        if (slot < heapSize) {
+            pairHeap[slot] = last;
+            heapPosition[last] = slot;
+            siftUp(slot);
+            siftDown(heapPosition[last]);
+        }
+    }
+
+    private void siftUp(int slot) {
+        int p = pairHeap[slot];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) / 2;
+            if (!pairBefore(p, pairHeap[parentSlot])) {
+                break;
+            }
+            pairHeap[slot] = pairHeap[parentSlot];
+            heapPosition[pairHeap[slot]] = slot;
+            slot = parentSlot;
+        }
+        pairHeap[slot] = p;
+        heapPosition[p] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int p = pairHeap[slot];
+        while (2 * slot + 1 < heapSize) {
+            int child = 2 * slot + 1;
+            if (child + 1 < heapSize && pairBefore(pairHeap[child + 1], pairHeap[child])) {
+                child++;
+            }
+            if (!pairBefore(pairHeap[child], p)) {
+                break;
+            }
+            pairHeap[slot] = pairHeap[child];
+            heapPosition[pairHeap[slot]] = slot;
+            slot = child;
+        }
+        pairHeap[slot] = p;
+        heapPosition[p] = slot;
+    }
+
+    private void growPoints(int capacity) {
+        xCoords = Arrays.copyOf(xCoords, capacity);
+        yCoords = Arrays.copyOf(yCoords, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        location = Arrays.copyOf(location, capacity);
+        previousDuplicate = Arrays.copyOf(previousDuplicate, capacity);
+        nextDuplicate = Arrays.copyOf(nextDuplicate, capacity);
+        candidate = Arrays.copyOf(candidate, capacity);
+        candidateDistance = Arrays.copyOf(candidateDistance, capacity);
+        dependentHead = Arrays.copyOf(dependentHead, capacity);
+        dependentNext = Arrays.copyOf(dependentNext, capacity);
+        dependentPrevious = Arrays.copyOf(dependentPrevious, capacity);
+        heapPosition = Arrays.copyOf(heapPosition, capacity);
+        pairHeap = Arrays.copyOf(pairHeap, capacity);
+    }
+
+    // Manhattan distance from point id to (x, y)
+    private long distance(int id, int x, int y) {
+        return Math.abs((long) xCoords[id] - x) + Math.abs((long) yCoords[id] - y);
+    }
+
+    // Pack a location into one map key
+    private static long locationKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
     }
 }
 
 
 // Output
-// Closest Pair: [0, 3]
\ No newline at end of file
+// Closest Pair: [0, 3]
+// Closest Pair (fast): [0, 3]
+// Random tests passed
+// Indexed Pair: [0, 3]
+// Nearest to (4, 2): 4
+// After deleting 3: [0, 1]
+// Closest 3 Pairs: [0, 3] [1, 3] [0, 1]
\ No newline at end of file
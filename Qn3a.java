@@ -22,7 +22,24 @@
 // O(ElogE), where E is the number of edges (sorting dominates).
 // Space Complexity: O(V+E), where V is the number of devices and E is the number of edges.
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
     
 class Question3a {
     
@@ -67,6 +84,262 @@ class Question3a {
         }
     }
 
+    // Stack-safe Union-Find in a single packed array.
+    // A non-negative entry is the parent; a negative entry marks a root and holds -size.
+    // find() is iterative with path halving, and union() attaches the smaller tree to the larger one.
+    static class PackedUnionFind {
+        final int[] parent;
+
+        // Constructor where every node starts as its own root of size 1
+        public PackedUnionFind(int n) {
+            parent = new int[n];
+            Arrays.fill(parent, -1);
+        }
+
+        // Find the root of x, pointing every visited node at its grandparent on the way
+        public int find(int x) {
+            while (parent[x] >= 0) {
+                int p = parent[x];
+                int grandparent = parent[p];
+                if (grandparent < 0) return p;
+                parent[x] = grandparent; // Path halving
+                x = grandparent;
+            }
+            return x;
+        }
+
+        // Find the root of x without modifying the array, safe for concurrent readers
+        public int findReadOnly(int x) {
+            while (parent[x] >= 0) {
+                x = parent[x];
+            }
+            return x;
+        }
+
+        // Union of the sets containing x and y (by size)
+        public boolean union(int x, int y) {
+            int rootX = find(x);
+            int rootY = find(y);
+            if (rootX == rootY) return false;
+
+            if (parent[rootX] > parent[rootY]) { // rootX holds the smaller tree
+                int swap = rootX;
+                rootX = rootY;
+                rootY = swap;
+            }
+            parent[rootX] += parent[rootY];
+            parent[rootY] = rootX;
+            return true;
+        }
+    }
+
+    // Edges of the network in parallel primitive arrays, including the virtual hub edges.
+    // keys[k] packs the cost and the edge index (see packEdge) and is the array that gets sorted.
+    static class EdgeArrays {
+        final int[] from, to;
+        final long[] keys;
+
+        // Build the edge arrays from the input, with the dummy hub at index n
+        EdgeArrays(int n, int[] modules, int[][] connections) {
+            int m = connections.length + n;
+            from = new int[m];
+            to = new int[m];
+            keys = new long[m];
+
+            // Given connections, converted to 0-based indices
+            for (int e = 0; e < connections.length; e++) {
+                from[e] = connections[e][0] - 1;
+                to[e] = connections[e][1] - 1;
+                keys[e] = packEdge(connections[e][2], e);
+            }
+            // Virtual edges from the dummy hub (index n) to each device
+            for (int i = 0; i < n; i++) {
+                int e = connections.length + i;
+                from[e] = n;
+                to[e] = i;
+                keys[e] = packEdge(modules[i], e);
+            }
+        }
+    }
+
+    // Filter-Kruskal: quicksort-like recursion that only sorts the edges it may still need.
+    // Edges are split around a pivot cost; the light half is solved first, then every heavy edge
+    // whose endpoints are already connected is filtered out (in parallel) before the heavy half
+    // is processed, so sparse-but-huge networks skip sorting edges that can never be used.
+    static class FilterKruskal {
+        private static final int SORT_THRESHOLD = 1 << 12; // Ranges up to this size are radix sorted directly
+        private static final int PARALLEL_FILTER = 1 << 15; // Ranges from this size are filtered in parallel
+        private static final long DROPPED = Long.MAX_VALUE; // Never a real key: its edge index would be 2^32 - 1
+
+        private final EdgeArrays edges;
+        private final PackedUnionFind uf;
+        private final int needed; // Number of MST edges (one per device)
+        private long totalCost;
+        private int edgesUsed;
+
+        FilterKruskal(EdgeArrays edges, int nodes) {
+            this.edges = edges;
+            this.uf = new PackedUnionFind(nodes);
+            this.needed = nodes - 1;
+        }
+
+        // Run the recursion over all edges and return the MST cost
+        long run() {
+            if (needed > 0) {
+                solve(0, edges.keys.length);
+            }
+            return totalCost;
+        }
+
+        private void solve(int lo, int hi) {
+            long[] keys = edges.keys;
+            if (hi - lo <= SORT_THRESHOLD) {
+                radixSortByCost(keys, lo, hi);
+                for (int k = lo; k < hi && edgesUsed < needed; k++) {
+                    int e = (int) keys[k];
+                    if (uf.union(edges.from[e], edges.to[e])) {
+                        totalCost += edgeCost(keys[k]);
+                        edgesUsed++;
+                    }
+                }
+                return;
+            }
+
+            // Keys are distinct and sampled at distinct indices, so the median of three is never the
+            // largest and both sides shrink
+            long pivot = medianOfThree(keys, lo, hi);
+            int split = partition(keys, lo, hi, pivot);
+            solve(lo, split);
+            if (edgesUsed == needed) return;
+
+            int end = filter(split, hi);
+            if (end > split) {
+                solve(split, end);
+            }
+        }
+
+        // Move keys <= pivot (unsigned) to the front of the range, returning where the rest starts
+        private int partition(long[] keys, int lo, int hi, long pivot) {
+            int i = lo;
+            int j = hi - 1;
+            while (i <= j) {
+                if (Long.compareUnsigned(keys[i], pivot) <= 0) {
+                    i++;
+                } else {
+                    long swap = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = swap;
+                    j--;
+                }
+            }
+            return i;
+        }
+
+        // Drop edges inside one component and compact the rest, returning the new end of the range
+        private int filter(int lo, int hi) {
+            long[] keys = edges.keys;
+            if (hi - lo >= PARALLEL_FILTER) {
+                // No unions happen during this pass, so read-only finds can run concurrently
+                IntStream.range(lo, hi).parallel().forEach(k -> {
+                    int e = (int) keys[k];
+                    if (uf.findReadOnly(edges.from[e]) == uf.findReadOnly(edges.to[e])) {
+                        keys[k] = DROPPED;
+                    }
+                });
+            } else {
+                for (int k = lo; k < hi; k++) {
+                    int e = (int) keys[k];
+                    if (uf.find(edges.from[e]) == uf.find(edges.to[e])) {
+                        keys[k] = DROPPED;
+                    }
+                }
+            }
+            int end = lo;
+            for (int k = lo; k < hi; k++) {
+                if (keys[k] != DROPPED) {
+                    keys[end++] = keys[k];
+                }
+            }
+            return end;
+        }
+
+        // Median (unsigned) of three random keys in the range, one from each third so the indices differ
+        private static long medianOfThree(long[] keys, int lo, int hi) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int third = (hi - lo) / 3;
+            long a = keys[random.nextInt(lo, lo + third)];
+            long b = keys[random.nextInt(lo + third, lo + 2 * third)];
+            long c = keys[random.nextInt(lo + 2 * third, hi)];
+            if (Long.compareUnsigned(a, b) > 0) {
+                long swap = a;
+                a = b;
+                b = swap;
+            }
+            // With a <= b the median is b when b <= c, otherwise the larger of a and c
+            if (Long.compareUnsigned(b, c) <= 0) return b;
+            return Long.compareUnsigned(a, c) >= 0 ? a : c;
+        }
+    }
+
+    // Runs an action for every index in [from, to) as fork/join tasks
+    static class ParallelRange extends RecursiveAction {
+        private static final int GRAIN = 1 << 13; // Ranges below this size run in one task
+
+        private final int from, to;
+        private final IntConsumer action;
+
+        ParallelRange(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                for (int i = from; i < to; i++) action.accept(i);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ParallelRange(from, mid, action), new ParallelRange(mid, to, action));
+        }
+    }
+
+    // Selectable MST engines, all giving the same total
+    enum MstEngine {
+        KRUSKAL, // Original boxed Kruskal
+        RADIX_KRUSKAL, // Primitive edge arrays with radix sort
+        FILTER_KRUSKAL, // Filter-Kruskal with parallel filtering
+        BORUVKA, // Parallel Boruvka rounds
+        PRIM, // Prim with an indexed heap and implicit hub edges
+        AUTO // Prim for dense networks, radix Kruskal otherwise
+    }
+
+    // Average degree from which Prim's O(E + V log V) beats sorting all the edges
+    static final int DENSE_EDGES_PER_DEVICE = 8;
+
+    // Function to find the minimum total cost with the chosen engine
+    public static long minTotalCost(int n, int[] modules, int[][] connections, MstEngine engine) {
+        switch (engine) {
+            case KRUSKAL:
+                return minTotalCost(n, modules, connections);
+            case RADIX_KRUSKAL:
+                return minTotalCostRadix(n, modules, connections);
+            case FILTER_KRUSKAL:
+                return minTotalCostFilterKruskal(n, modules, connections);
+            case BORUVKA:
+                return minTotalCostBoruvka(n, modules, connections, ForkJoinPool.commonPool());
+            case PRIM:
+                return minTotalCostPrim(n, modules, connections);
+            case AUTO:
+                return connections.length >= (long) DENSE_EDGES_PER_DEVICE * n
+                        ? minTotalCostPrim(n, modules, connections)
+                        : minTotalCostRadix(n, modules, connections);
+            default:
+                throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+    }
+
     // Function to find the minimum total cost to connect all devices
     public static int minTotalCost(int n, int[] modules, int[][] connections) {
         List<int[]> edges = new ArrayList<>();
@@ -104,6 +377,564 @@ class Question3a {
         return totalCost;
     }
 
+    // Kruskal's algorithm over primitive edge arrays.
+    // Each edge is packed into one long key: the cost (sign bit flipped so it sorts unsigned) in the
+    // high 32 bits and the edge index in the low 32 bits. The keys are sorted with an LSD radix sort
+    // on the cost bytes only, and the total is accumulated in a long so large networks cannot overflow.
+    public static long minTotalCostRadix(int n, int[] modules, int[][] connections) {
+        EdgeArrays edges = new EdgeArrays(n, modules, connections);
+        long[] keys = edges.keys;
+        radixSortByCost(keys, 0, keys.length);
+
+        PackedUnionFind uf = new PackedUnionFind(n + 1); // Extra node for the dummy hub
+        long totalCost = 0;
+        int edgesUsed = 0;
+        for (long key : keys) {
+            if (edgesUsed == n) break; // MST over n + 1 nodes has n edges
+            int e = (int) key;
+            if (uf.union(edges.from[e], edges.to[e])) {
+                totalCost += edgeCost(key);
+                edgesUsed++;
+            }
+        }
+        return totalCost;
+    }
+
+    // Filter-Kruskal version for sparse but huge networks, see FilterKruskal
+    public static long minTotalCostFilterKruskal(int n, int[] modules, int[][] connections) {
+        return new FilterKruskal(new EdgeArrays(n, modules, connections), n + 1).run();
+    }
+
+    // Boruvka's algorithm with parallel rounds on the given pool.
+    // Each round, every remaining edge offers its packed key to the cheapest-edge slot of both of its
+    // components with an atomic unsigned min-update; keys are unique, so ties can never close a cycle.
+    // The chosen edges are then joined sequentially (one per component), the component labels are
+    // refreshed in parallel, and edges that became internal are dropped. Every round at least halves
+    // the number of components, so there are O(log n) rounds.
+    public static long minTotalCostBoruvka(int n, int[] modules, int[][] connections, ForkJoinPool pool) {
+        EdgeArrays edges = new EdgeArrays(n, modules, connections);
+        int nodes = n + 1; // Extra node for the dummy hub
+        int[] component = new int[nodes];
+        for (int v = 0; v < nodes; v++) component[v] = v;
+        AtomicLongArray cheapest = new AtomicLongArray(nodes);
+        PackedUnionFind uf = new PackedUnionFind(nodes);
+
+        int[] live = IntStream.range(0, edges.keys.length).toArray(); // Edges between different components
+        long totalCost = 0;
+        int edgesUsed = 0;
+        while (edgesUsed < n && live.length > 0) {
+            for (int v = 0; v < nodes; v++) cheapest.set(v, NONE);
+
+            int[] current = live;
+            pool.invoke(new ParallelRange(0, current.length, k -> {
+                int e = current[k];
+                long key = edges.keys[e];
+                offerCheapest(cheapest, component[edges.from[e]], key);
+                offerCheapest(cheapest, component[edges.to[e]], key);
+            }));
+
+            for (int v = 0; v < nodes; v++) {
+                long key = cheapest.get(v);
+                if (key == NONE) continue;
+                int e = (int) key;
+                if (uf.union(edges.from[e], edges.to[e])) { // Both components may pick the same edge
+                    totalCost += edgeCost(key);
+                    edgesUsed++;
+                }
+            }
+
+            // No unions run now, so roots can be read concurrently
+            pool.invoke(new ParallelRange(0, nodes, v -> component[v] = uf.findReadOnly(v)));
+            live = pool.submit(() -> Arrays.stream(current).parallel()
+                    .filter(e -> component[edges.from[e]] != component[edges.to[e]])
+                    .toArray()).join();
+        }
+        return totalCost;
+    }
+
+    // Prim's algorithm for dense networks without materializing the virtual hub edges.
+    // The hub starts as the whole tree, so every device's initial key is simply its module cost.
+    // Devices are taken from an indexed 4-ary heap and relax their neighbours through a CSR
+    // adjacency layout (offsets plus flat target/cost arrays), for O(E + V log V) overall.
+    public static long minTotalCostPrim(int n, int[] modules, int[][] connections) {
+        // CSR adjacency: neighbours of device v are targets[offsets[v] .. offsets[v + 1])
+        int[] offsets = new int[n + 1];
+        for (int[] conn : connections) {
+            if (conn[0] == conn[1]) continue; // Self loops never join the tree
+            offsets[conn[0]]++; // Counted at index + 1 of the 0-based device
+            offsets[conn[1]]++;
+        }
+        for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+        int[] targets = new int[offsets[n]];
+        int[] costs = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int[] conn : connections) {
+            int u = conn[0] - 1; // Convert to 0-based index
+            int v = conn[1] - 1;
+            if (u == v) continue;
+            targets[fill[u]] = v;
+            costs[fill[u]++] = conn[2];
+            targets[fill[v]] = u;
+            costs[fill[v]++] = conn[2];
+        }
+
+        long[] key = new long[n];
+        for (int v = 0; v < n; v++) key[v] = modules[v]; // Implicit edge from the hub
+        IndexedDaryHeap heap = new IndexedDaryHeap(key);
+
+        long totalCost = 0;
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            totalCost += key[v];
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = targets[k];
+                if (heap.contains(w) && costs[k] < key[w]) {
+                    key[w] = costs[k];
+                    heap.decreaseKey(w);
+                }
+            }
+        }
+        return totalCost;
+    }
+
+    // Indexed 4-ary min-heap over items 0..n-1 ordered by an external key array.
+    // position[] maps each item to its heap slot, so decreaseKey can sift it up in place.
+    static class IndexedDaryHeap {
+        private static final int D = 4; // Wider nodes mean a shallower heap and cheaper decreaseKey
+
+        private final long[] key;
+        private final int[] heap;
+        private final int[] position; // Slot of each item, -1 once it has been polled
+        private int size;
+
+        // Constructor that heapifies every item 0..key.length-1
+        IndexedDaryHeap(long[] key) {
+            this.key = key;
+            size = key.length;
+            heap = new int[size];
+            position = new int[size];
+            for (int i = 0; i < size; i++) {
+                heap[i] = i;
+                position[i] = i;
+            }
+            for (int slot = (size - 2) / D; size > 1 && slot >= 0; slot--) siftDown(slot);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int item) {
+            return position[item] >= 0;
+        }
+
+        // Remove and return the item with the smallest key
+        int poll() {
+            int top = heap[0];
+            position[top] = -1;
+            if (--size > 0) {
+                move(heap[size], 0);
+                siftDown(0);
+            }
+            return top;
+        }
+
+        // Restore the heap after key[item] was lowered
+        void decreaseKey(int item) {
+            int slot = position[item];
+            while (slot > 0) {
+                int parentSlot = (slot - 1) / D;
+                if (key[heap[parentSlot]] <= key[item]) break;
+                move(heap[parentSlot], slot);
+                slot = parentSlot;
+            }
+            move(item, slot);
+        }
+
+        private void siftDown(int slot) {
+            int item = heap[slot];
+            while (true) {
+                int first = slot * D + 1;
+                if (first >= size) break;
+                int best = first;
+                for (int child = first + 1; child < Math.min(first + D, size); child++) {
+                    if (key[heap[child]] < key[heap[best]]) best = child;
+                }
+                if (key[heap[best]] >= key[item]) break;
+                move(heap[best], slot);
+                slot = best;
+            }
+            move(item, slot);
+        }
+
+        private void move(int item, int slot) {
+            heap[slot] = item;
+            position[item] = slot;
+        }
+    }
+
+    // Marks a component without a cheapest edge; every real key is smaller as an unsigned value
+    private static final long NONE = -1L;
+
+    // Atomically lower slot c to key if key is smaller as an unsigned value
+    private static void offerCheapest(AtomicLongArray cheapest, int c, long key) {
+        long current = cheapest.get(c);
+        while (Long.compareUnsigned(key, current) < 0 && !cheapest.compareAndSet(c, current, key)) {
+            current = cheapest.get(c);
+        }
+    }
+
+    // Pack a cost and an edge index into a key whose unsigned order is the cost order
+    static long packEdge(int cost, int edge) {
+        return ((long) (cost ^ Integer.MIN_VALUE) << 32) | (edge & 0xFFFFFFFFL);
+    }
+
+    // Recover the cost from a packed key
+    static int edgeCost(long key) {
+        return (int) (key >>> 32) ^ Integer.MIN_VALUE;
+    }
+
+    // LSD radix sort of packed keys[from..to) on their upper 32 bits, one byte per pass.
+    // Passes where every key has the same byte are skipped, so small cost ranges take fewer passes.
+    static void radixSortByCost(long[] keys, int from, int to) {
+        int length = to - from;
+        if (length < 2) return;
+        long[] source = Arrays.copyOfRange(keys, from, to);
+        long[] target = new long[length];
+        int[] counts = new int[257];
+        for (int shift = 32; shift < 64; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (long key : source) {
+                counts[(int) ((key >>> shift) & 0xFF) + 1]++;
+            }
+            if (counts[(int) ((source[0] >>> shift) & 0xFF) + 1] == length) {
+                continue; // All keys share this byte
+            }
+            for (int b = 0; b < 256; b++) {
+                counts[b + 1] += counts[b];
+            }
+            for (long key : source) {
+                target[counts[(int) ((key >>> shift) & 0xFF)]++] = key;
+            }
+            long[] swap = source;
+            source = target;
+            target = swap;
+        }
+        System.arraycopy(source, 0, keys, from, length);
+    }
+
+    // Benchmark comparing the boxed, radix, Filter-Kruskal and Prim versions on a random graph.
+    // 10M edges need a larger heap than the default, e.g. java -Xmx4g Qn3a.java --bench 10000000
+    static void benchmark(int edgeCount) {
+        int n = Math.max(2, edgeCount / 10);
+        Random random = new Random(42);
+        int[] modules = randomModules(n, random);
+        int[][] connections = randomConnections(n, edgeCount, random);
+
+        for (int round = 0; round < 3; round++) { // First rounds warm up the JIT
+            long start = System.nanoTime();
+            long boxed = minTotalCost(n, modules, connections);
+            long boxedTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            long radix = minTotalCostRadix(n, modules, connections);
+            long radixTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            long filter = minTotalCostFilterKruskal(n, modules, connections);
+            long filterTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            long prim = minTotalCostPrim(n, modules, connections);
+            long primTime = System.nanoTime() - start;
+            System.out.printf("edges=%d boxed=%d ms radix=%d ms filter=%d ms prim=%d ms (totals %d / %d / %d / %d)%n",
+                    edgeCount, boxedTime / 1_000_000, radixTime / 1_000_000, filterTime / 1_000_000,
+                    primTime / 1_000_000, boxed, radix, filter, prim);
+        }
+    }
+
+    // Size of one edge record in binary edge files: device1, device2, cost as big-endian ints
+    static final int EDGE_RECORD_BYTES = 12;
+
+    // Most runs merged at once, which bounds open files and read buffers (64 KB each) per merge
+    static final int MAX_MERGE_FAN_IN = 64;
+
+    // External-memory version with default run size, spilling to the system temp directory
+    public static long minTotalCostFromFile(int n, int[] modules, Path edgeFile) throws IOException {
+        return minTotalCostFromFile(n, modules, edgeFile, 1 << 22, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    // External-memory Kruskal for edge files far larger than the heap.
+    // The file (records of device1, device2, cost with 1-based devices) is read through FileChannel.map.
+    // Every 'runRecords' edges are radix sorted by cost and spilled to a run file. Runs are merged
+    // at most MAX_MERGE_FAN_IN at a time with a heap over their heads, and the last merge streams
+    // straight into the union-find. Besides the fixed-size run buffer and merge buffers, the only
+    // memory that grows with the input is O(V) (plus one pending run list per merge level).
+    public static long minTotalCostFromFile(int n, int[] modules, Path edgeFile, int runRecords, Path tempDir)
+            throws IOException {
+        List<List<Path>> levels = new ArrayList<>(); // Pending runs by how many merges produced them
+        try {
+            spillSortedRuns(n, modules, edgeFile, runRecords, tempDir, levels);
+
+            // Fold the leftovers of every level into at most MAX_MERGE_FAN_IN runs, smallest first
+            List<Path> runs = new ArrayList<>();
+            for (List<Path> level : levels) {
+                runs.addAll(level);
+            }
+            levels.clear();
+            levels.add(runs);
+            while (runs.size() > MAX_MERGE_FAN_IN) {
+                List<Path> batch = runs.subList(0, MAX_MERGE_FAN_IN);
+                Path merged = mergeToRun(batch, tempDir);
+                deleteRuns(batch);
+                runs.add(merged);
+            }
+            return mergeIntoKruskal(n, runs);
+        } finally {
+            for (List<Path> level : levels) {
+                deleteRuns(level);
+            }
+        }
+    }
+
+    // Read the mapped edge file plus the virtual hub edges and write them as sorted run files
+    private static void spillSortedRuns(int n, int[] modules, Path edgeFile, int runRecords, Path tempDir,
+                                        List<List<Path>> levels) throws IOException {
+        int[] from = new int[runRecords];
+        int[] to = new int[runRecords];
+        long[] keys = new long[runRecords];
+        int count = 0;
+
+        try (FileChannel channel = FileChannel.open(edgeFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % EDGE_RECORD_BYTES != 0) {
+                throw new IOException("Edge file size is not a multiple of " + EDGE_RECORD_BYTES + " bytes");
+            }
+            // Map at most about 1 GB at a time, always ending on a record boundary
+            long window = (1L << 30) / EDGE_RECORD_BYTES * EDGE_RECORD_BYTES;
+            for (long offset = 0; offset < size; offset += window) {
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(window, size - offset));
+                while (mapped.hasRemaining()) {
+                    from[count] = mapped.getInt() - 1; // Convert to 0-based index
+                    to[count] = mapped.getInt() - 1;
+                    keys[count] = packEdge(mapped.getInt(), count);
+                    if (++count == runRecords) {
+                        addRun(levels, 0, writeRun(from, to, keys, count, tempDir), tempDir);
+                        count = 0;
+                    }
+                }
+            }
+        }
+
+        // Virtual edges from the dummy hub (index n) to each device
+        for (int i = 0; i < n; i++) {
+            from[count] = n;
+            to[count] = i;
+            keys[count] = packEdge(modules[i], count);
+            if (++count == runRecords) {
+                addRun(levels, 0, writeRun(from, to, keys, count, tempDir), tempDir);
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            addRun(levels, 0, writeRun(from, to, keys, count, tempDir), tempDir);
+        }
+    }
+
+    // Sort one buffer of edges by cost and write it as a run file of (from, to, cost) records
+    private static Path writeRun(int[] from, int[] to, long[] keys, int count, Path tempDir) throws IOException {
+        radixSortByCost(keys, 0, count);
+        Path run = Files.createTempFile(tempDir, "mst-run", ".bin");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (int k = 0; k < count; k++) {
+                int e = (int) keys[k];
+                out.writeInt(from[e]);
+                out.writeInt(to[e]);
+                out.writeInt(edgeCost(keys[k]));
+            }
+        }
+        return run;
+    }
+
+    // Add a run to a merge level; a level that reaches MAX_MERGE_FAN_IN runs is merged into
+    // one run on the next level, so no level ever holds more than MAX_MERGE_FAN_IN - 1 runs
+    private static void addRun(List<List<Path>> levels, int level, Path run, Path tempDir) throws IOException {
+        if (levels.size() == level) {
+            levels.add(new ArrayList<>());
+        }
+        List<Path> pending = levels.get(level);
+        pending.add(run);
+        if (pending.size() == MAX_MERGE_FAN_IN) {
+            Path merged = mergeToRun(pending, tempDir);
+            deleteRuns(pending);
+            addRun(levels, level + 1, merged, tempDir);
+        }
+    }
+
+    // Delete run files and remove them from the list
+    private static void deleteRuns(List<Path> runs) throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+    }
+
+    // Merge sorted runs into one new sorted run file
+    private static Path mergeToRun(List<Path> runs, Path tempDir) throws IOException {
+        Path merged = Files.createTempFile(tempDir, "mst-run", ".bin");
+        boolean written = false;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(merged), 1 << 16))) {
+            mergeRuns(runs, (from, to, cost) -> {
+                out.writeInt(from);
+                out.writeInt(to);
+                out.writeInt(cost);
+                return true;
+            });
+            written = true;
+        } finally {
+            if (!written) {
+                Files.deleteIfExists(merged);
+            }
+        }
+        return merged;
+    }
+
+    // Final merge feeding Kruskal directly, stopping once the tree is complete
+    private static long mergeIntoKruskal(int n, List<Path> runs) throws IOException {
+        if (n == 0) {
+            return 0;
+        }
+        PackedUnionFind uf = new PackedUnionFind(n + 1); // Extra node for the dummy hub
+        long[] totalCost = new long[1];
+        int[] edgesUsed = new int[1];
+        mergeRuns(runs, (from, to, cost) -> {
+            if (uf.union(from, to)) {
+                totalCost[0] += cost;
+                edgesUsed[0]++;
+            }
+            return edgesUsed[0] < n;
+        });
+        return totalCost[0];
+    }
+
+    // Receives merged edge records in cost order; returning false stops the merge
+    private interface EdgeSink {
+        boolean accept(int from, int to, int cost) throws IOException;
+    }
+
+    // k-way merge of sorted runs through a min-heap on their head costs
+    private static void mergeRuns(List<Path> runs, EdgeSink sink) throws IOException {
+        int runCount = runs.size();
+        DataInputStream[] inputs = new DataInputStream[runCount];
+        long[] remaining = new long[runCount]; // Records left in each run
+        int[] headFrom = new int[runCount], headTo = new int[runCount], headCost = new int[runCount];
+        int[] heap = new int[runCount];
+        int heapSize = 0;
+        try {
+            for (int r = 0; r < runCount; r++) {
+                inputs[r] = new DataInputStream(new BufferedInputStream(Files.newInputStream(runs.get(r)), 1 << 16));
+                remaining[r] = Files.size(runs.get(r)) / EDGE_RECORD_BYTES;
+                if (readHead(inputs[r], remaining, r, headFrom, headTo, headCost)) {
+                    heap[heapSize] = r;
+                    siftUpByCost(heap, heapSize++, headCost);
+                }
+            }
+
+            while (heapSize > 0) {
+                int r = heap[0];
+                if (!sink.accept(headFrom[r], headTo[r], headCost[r])) {
+                    return;
+                }
+                if (!readHead(inputs[r], remaining, r, headFrom, headTo, headCost)) {
+                    heap[0] = heap[--heapSize]; // Run exhausted
+                }
+                siftDownByCost(heap, heapSize, headCost);
+            }
+        } finally {
+            for (DataInputStream input : inputs) {
+                if (input != null) input.close();
+            }
+        }
+    }
+
+    // Load the next record of run r into the head arrays, false once the run is exhausted
+    private static boolean readHead(DataInputStream input, long[] remaining, int r,
+                                    int[] headFrom, int[] headTo, int[] headCost) throws IOException {
+        if (remaining[r] == 0) return false;
+        remaining[r]--;
+        headFrom[r] = input.readInt();
+        headTo[r] = input.readInt();
+        headCost[r] = input.readInt();
+        return true;
+    }
+
+    private static void siftUpByCost(int[] heap, int k, int[] cost) {
+        int run = heap[k];
+        while (k > 0 && cost[heap[(k - 1) / 2]] > cost[run]) {
+            heap[k] = heap[(k - 1) / 2];
+            k = (k - 1) / 2;
+        }
+        heap[k] = run;
+    }
+
+    private static void siftDownByCost(int[] heap, int size, int[] cost) {
+        if (size == 0) return;
+        int run = heap[0];
+        int k = 0;
+        while (2 * k + 1 < size) {
+            int child = 2 * k + 1;
+            if (child + 1 < size && cost[heap[child + 1]] < cost[heap[child]]) child++;
+            if (cost[heap[child]] >= cost[run]) break;
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = run;
+    }
+
+    // Scaling benchmark of the Boruvka engine against radix Kruskal on 8 to 64 worker threads
+    static void scalingBenchmark(int edgeCount) {
+        int n = Math.max(2, edgeCount / 10);
+        Random random = new Random(42);
+        int[] modules = randomModules(n, random);
+        int[][] connections = randomConnections(n, edgeCount, random);
+
+        long expected = minTotalCostRadix(n, modules, connections);
+        long start = System.nanoTime();
+        minTotalCostRadix(n, modules, connections);
+        System.out.printf("kruskal (sequential): %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        for (int threads : new int[]{1, 8, 16, 32, 64}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                minTotalCostBoruvka(n, modules, connections, pool); // Warm-up
+                start = System.nanoTime();
+                long total = minTotalCostBoruvka(n, modules, connections, pool);
+                long elapsed = System.nanoTime() - start;
+                if (total != expected) {
+                    throw new AssertionError("Boruvka total " + total + " differs from " + expected);
+                }
+                System.out.printf("boruvka threads=%d: %d ms%n", threads, elapsed / 1_000_000);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Random module costs for the benchmarks
+    private static int[] randomModules(int n, Random random) {
+        int[] modules = new int[n];
+        for (int i = 0; i < n; i++) {
+            modules[i] = 1 + random.nextInt(1_000_000);
+        }
+        return modules;
+    }
+
+    // Random connections for the benchmarks
+    private static int[][] randomConnections(int n, int edgeCount, Random random) {
+        int[][] connections = new int[edgeCount][];
+        for (int e = 0; e < edgeCount; e++) {
+            connections[e] = new int[]{1 + random.nextInt(n), 1 + random.nextInt(n), 1 + random.nextInt(100_000)};
+        }
+        return connections;
+    }
+
     // Driver code to test the function
     public static void main(String[] args) {
         int n = 3;  // Number of devices
@@ -112,5 +943,363 @@ class Question3a {
         
         // Call the function to find the minimum total cost
         System.out.println(minTotalCost(n, modules, connections)); // Expected Output: 3
+
+        // Same network with primitive edge arrays and radix sort
+        System.out.println(minTotalCostRadix(n, modules, connections)); // Expected Output: 3
+
+        // Same network with the Filter-Kruskal variant
+        System.out.println(minTotalCostFilterKruskal(n, modules, connections)); // Expected Output: 3
+
+        // Same network through the engine flag, using parallel Boruvka
+        System.out.println(minTotalCost(n, modules, connections, MstEngine.BORUVKA)); // Expected Output: 3
+
+        // Same network with Prim and implicit hub edges
+        System.out.println(minTotalCost(n, modules, connections, MstEngine.PRIM)); // Expected Output: 3
+
+        // Same network read from a binary edge file, with tiny runs so the merge is exercised
+        try {
+            Path edgeFile = Files.createTempFile("connections", ".bin");
+            try {
+                try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(edgeFile))) {
+                    for (int[] conn : connections) {
+                        out.writeInt(conn[0]);
+                        out.writeInt(conn[1]);
+                        out.writeInt(conn[2]);
+                    }
+                }
+                Path tempDir = Path.of(System.getProperty("java.io.tmpdir"));
+                System.out.println(minTotalCostFromFile(n, modules, edgeFile, 2, tempDir)); // Expected Output: 3
+            } finally {
+                Files.deleteIfExists(edgeFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Dynamic network: the cost stays up to date while connections and modules change
+        DynamicNetwork network = new DynamicNetwork(n, modules, connections);
+        int shortcut = network.addConnection(1, 3, 0); // Free link between devices 1 and 3
+        System.out.println(network.totalCost()); // Expected Output: 2
+        network.updateModuleCost(3, 0); // Module on device 3 becomes free
+        System.out.println(network.totalCost()); // Expected Output: 1
+        network.removeConnection(shortcut);
+        System.out.println(network.totalCost()); // Expected Output: 2
+
+        if (args.length > 0 && args[0].equals("--bench")) {
+            benchmark(args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000);
+        }
+        if (args.length > 0 && args[0].equals("--bench-scaling")) {
+            scalingBenchmark(args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000);
+        }
+    }
+}
+
+// Minimum spanning tree of the device network (virtual hub included) kept up to date under changes.
+// The current tree is stored in a link-cut tree where every edge is its own node, so the most
+// expensive edge on the tree path between two devices is found in amortized O(log n).
+// Inserting an edge or lowering a cost swaps out that path maximum if the new edge is cheaper.
+// Deleting a tree edge (or raising its cost) cuts it and searches the non-tree edges for the
+// cheapest one that reconnects the two halves. The total cost is kept in a field, so reading it is O(1).
+class DynamicNetwork {
+    private final int hub; // Index of the virtual hub node, device i is node i - 1
+    private int edgeCount; // Edge ids handed out so far; ids 0..n-1 are the module edges
+
+    // Edge columns
+    private int[] edgeFrom, edgeTo;
+    private boolean[] alive, inTree;
+
+    // Link-cut tree columns; node ids are vertices 0..hub, then hub + 1 + edge id
+    private int[] left, right, parent, maxNode;
+    private long[] weight; // Edge cost on edge nodes, Long.MIN_VALUE on vertices
+    private boolean[] flipped; // Pending subtree reversal
+    private int[] path; // Scratch stack used by splay
+
+    private long totalCost;
+
+    // Constructor seeding the tree from the same input as Question3a.minTotalCost
+    public DynamicNetwork(int n, int[] modules, int[][] connections) {
+        hub = n;
+        int capacity = Math.max(4, n + connections.length);
+        edgeFrom = new int[capacity];
+        edgeTo = new int[capacity];
+        alive = new boolean[capacity];
+        inTree = new boolean[capacity];
+        int nodes = hub + 1 + capacity;
+        left = new int[nodes];
+        right = new int[nodes];
+        parent = new int[nodes];
+        maxNode = new int[nodes];
+        weight = new long[nodes];
+        flipped = new boolean[nodes];
+        path = new int[nodes];
+        for (int v = 0; v < nodes; v++) {
+            left[v] = right[v] = parent[v] = -1;
+            maxNode[v] = v;
+            weight[v] = Long.MIN_VALUE;
+        }
+
+        for (int i = 0; i < n; i++) {
+            insert(hub, i, modules[i]); // Module edge for device i + 1 gets id i
+        }
+        for (int[] conn : connections) {
+            insert(conn[0] - 1, conn[1] - 1, conn[2]);
+        }
+    }
+
+    // Current minimum total cost, O(1)
+    public long totalCost() {
+        return totalCost;
+    }
+
+    // Add a connection between two devices (1-based) and return its id
+    public int addConnection(int device1, int device2, int cost) {
+        return insert(device1 - 1, device2 - 1, cost);
+    }
+
+    // Remove a connection by id; module edges cannot be removed, only re-priced
+    public void removeConnection(int id) {
+        if (id < hub || id >= edgeCount || !alive[id]) {
+            throw new IllegalArgumentException("No removable connection with id " + id);
+        }
+        alive[id] = false;
+        if (inTree[id]) {
+            removeFromTree(id);
+            reconnect();
+        }
+    }
+
+    // Change the cost of a connection
+    public void updateConnectionCost(int id, int cost) {
+        if (id < hub || id >= edgeCount || !alive[id]) {
+            throw new IllegalArgumentException("No connection with id " + id);
+        }
+        updateCost(id, cost);
+    }
+
+    // Change the module cost of a device (1-based)
+    public void updateModuleCost(int device, int cost) {
+        updateCost(device - 1, cost);
+    }
+
+    private void updateCost(int id, long cost) {
+        int node = edgeNode(id);
+        long old = weight[node];
+        if (inTree[id] && cost <= old) {
+            // Cheaper tree edge: the tree stays optimal, only the weight changes
+            access(node);
+            weight[node] = cost;
+            update(node);
+            totalCost += cost - old;
+        } else if (inTree[id]) {
+            // More expensive tree edge: take it out and let the cheapest crossing edge back in
+            removeFromTree(id);
+            weight[node] = cost;
+            reconnect();
+        } else {
+            weight[node] = cost;
+            if (cost < old) {
+                offer(id);
+            }
+        }
+    }
+
+    // Create an edge and try it against the current tree
+    private int insert(int u, int v, long cost) {
+        int id = edgeCount++;
+        if (id == edgeFrom.length) {
+            grow();
+        }
+        edgeFrom[id] = u;
+        edgeTo[id] = v;
+        alive[id] = true;
+        weight[edgeNode(id)] = cost;
+        offer(id);
+        return id;
+    }
+
+    // Put a non-tree edge into the tree if it connects two trees or beats the path maximum
+    private void offer(int id) {
+        int u = edgeFrom[id];
+        int v = edgeTo[id];
+        if (u == v) return;
+        if (findRoot(u) != findRoot(v)) {
+            addToTree(id);
+            return;
+        }
+        makeRoot(u);
+        access(v);
+        int heaviest = maxNode[v];
+        if (weight[heaviest] > weight[edgeNode(id)]) {
+            removeFromTree(heaviest - hub - 1);
+            addToTree(id);
+        }
+    }
+
+    // Replacement-edge search after a tree edge was cut: cheapest alive edge between the two halves
+    private void reconnect() {
+        int best = -1;
+        for (int id = 0; id < edgeCount; id++) {
+            if (alive[id] && !inTree[id] && (best < 0 || weight[edgeNode(id)] < weight[edgeNode(best)])
+                    && findRoot(edgeFrom[id]) != findRoot(edgeTo[id])) {
+                best = id;
+            }
+        }
+        if (best >= 0) {
+            addToTree(best);
+        }
+    }
+
+    private void addToTree(int id) {
+        int node = edgeNode(id);
+        link(edgeFrom[id], node);
+        link(node, edgeTo[id]);
+        inTree[id] = true;
+        totalCost += weight[node];
+    }
+
+    private void removeFromTree(int id) {
+        int node = edgeNode(id);
+        cut(edgeFrom[id], node);
+        cut(node, edgeTo[id]);
+        inTree[id] = false;
+        totalCost -= weight[node];
+    }
+
+    private int edgeNode(int id) {
+        return hub + 1 + id;
+    }
+
+    // Double the edge capacity and the link-cut tree columns with it
+    private void grow() {
+        int capacity = edgeFrom.length * 2;
+        edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+        edgeTo = Arrays.copyOf(edgeTo, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        inTree = Arrays.copyOf(inTree, capacity);
+        int oldNodes = left.length;
+        int nodes = hub + 1 + capacity;
+        left = Arrays.copyOf(left, nodes);
+        right = Arrays.copyOf(right, nodes);
+        parent = Arrays.copyOf(parent, nodes);
+        maxNode = Arrays.copyOf(maxNode, nodes);
+        weight = Arrays.copyOf(weight, nodes);
+        flipped = Arrays.copyOf(flipped, nodes);
+        path = new int[nodes];
+        for (int v = oldNodes; v < nodes; v++) {
+            left[v] = right[v] = parent[v] = -1;
+            maxNode[v] = v;
+        }
+    }
+
+    // Link-cut tree primitives
+
+    // True if x is the root of its splay tree
+    private boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == -1 || (left[p] != x && right[p] != x);
+    }
+
+    // Push a pending reversal down to the children
+    private void push(int x) {
+        if (flipped[x]) {
+            int swap = left[x];
+            left[x] = right[x];
+            right[x] = swap;
+            if (left[x] != -1) flipped[left[x]] ^= true;
+            if (right[x] != -1) flipped[right[x]] ^= true;
+            flipped[x] = false;
+        }
+    }
+
+    // Recompute the heaviest node of x's splay subtree
+    private void update(int x) {
+        int best = x;
+        if (left[x] != -1 && weight[maxNode[left[x]]] > weight[best]) best = maxNode[left[x]];
+        if (right[x] != -1 && weight[maxNode[right[x]]] > weight[best]) best = maxNode[right[x]];
+        maxNode[x] = best;
+    }
+
+    private void rotate(int x) {
+        int p = parent[x];
+        int g = parent[p];
+        if (!isSplayRoot(p)) {
+            if (left[g] == p) left[g] = x;
+            else right[g] = x;
+        }
+        parent[x] = g;
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != -1) parent[right[x]] = p;
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != -1) parent[left[x]] = p;
+            left[x] = p;
+        }
+        parent[p] = x;
+        update(p);
+        update(x);
+    }
+
+    private void splay(int x) {
+        // Push pending reversals from the splay root down to x before rotating
+        int depth = 0;
+        path[depth++] = x;
+        for (int y = x; !isSplayRoot(y); y = parent[y]) {
+            path[depth++] = parent[y];
+        }
+        while (depth > 0) {
+            push(path[--depth]);
+        }
+        while (!isSplayRoot(x)) {
+            int p = parent[x];
+            if (!isSplayRoot(p)) {
+                int g = parent[p];
+                rotate((left[g] == p) == (left[p] == x) ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    // Make the path from the tree root to x preferred, with x at the root of its splay tree
+    private void access(int x) {
+        int last = -1;
+        for (int y = x; y != -1; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            update(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        flipped[x] ^= true;
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        push(x);
+        while (left[x] != -1) {
+            x = left[x];
+            push(x);
+        }
+        splay(x);
+        return x;
+    }
+
+    private void link(int x, int y) {
+        makeRoot(x);
+        parent[x] = y;
+    }
+
+    private void cut(int x, int y) {
+        makeRoot(x);
+        access(y);
+        // x is now y's left child with nothing between them
+        left[y] = -1;
+        parent[x] = -1;
+        update(y);
     }
 }
@@ -43,57 +43,160 @@
 // block.
 
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import javax.swing.*;
 
 // Class to represent a Tetris block
 class Block {
-    int[][] shape; // 2D array representing the block's shape
+    // Shapes of the seven tetrominoes in their spawn rotation
+    static final int[][][] SHAPES = {
+        {{1, 1, 1, 1}}, // I-block
+        {{1, 1}, {1, 1}}, // O-block
+        {{1, 1, 1}, {0, 1, 0}}, // T-block
+        {{1, 1, 0}, {0, 1, 1}}, // Z-block
+        {{0, 1, 1}, {1, 1, 0}}, // S-block
+        {{1, 0, 0}, {1, 1, 1}}, // L-block
+        {{0, 0, 1}, {1, 1, 1}} // J-block
+    };
+    static final int PIECES = SHAPES.length;
+    static final int ROTATIONS = 4;
+
+    // Every piece in every clockwise rotation, built once so rotating and spawning only swap references
+    private static final int[][][][] ROTATED_SHAPES = new int[PIECES][ROTATIONS][][];
+    private static final int[][][] ROW_MASKS = new int[PIECES][ROTATIONS][];
+    private static final int[][][] CELL_ROWS = new int[PIECES][ROTATIONS][];
+    private static final int[][][] CELL_COLUMNS = new int[PIECES][ROTATIONS][];
+
+    static {
+        for (int piece = 0; piece < PIECES; piece++) {
+            int[][] shape = SHAPES[piece];
+            for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+                ROTATED_SHAPES[piece][rotation] = shape;
+                ROW_MASKS[piece][rotation] = rowMasks(shape);
+                int cells = 0;
+                for (int[] row : shape) {
+                    for (int cell : row) cells += cell;
+                }
+                int[] rows = new int[cells];
+                int[] columns = new int[cells];
+                for (int i = 0, k = 0; i < shape.length; i++) {
+                    for (int j = 0; j < shape[i].length; j++) {
+                        if (shape[i][j] != 0) {
+                            rows[k] = i;
+                            columns[k++] = j;
+                        }
+                    }
+                }
+                CELL_ROWS[piece][rotation] = rows;
+                CELL_COLUMNS[piece][rotation] = columns;
+                shape = rotateClockwise(shape);
+            }
+        }
+    }
+
+    int piece; // Index into SHAPES
+    int rotation; // Number of clockwise quarter turns from the spawn rotation
+    int[][] shape; // 2D array representing the block's shape (shared, never modified)
+    int[] rowMasks; // Bitmask of each shape row, column j at bit j (shifted by y when used)
+    int[] cellRows, cellColumns; // Offsets of the filled cells from the top-left corner
     Color color; // Color of the block
     int x, y; // Position of the block on the game board
 
-    // Constructor to initialize a block with its shape and color
-    public Block(int[][] shape, Color color) {
-        this.shape = shape;
+    // Constructor to initialize a block with its piece and color
+    public Block(int piece, Color color) {
+        reset(piece, color);
+    }
+
+    // Method to reuse this block as a freshly spawned piece
+    public void reset(int piece, Color color) {
+        if (piece < 0 || piece >= PIECES) {
+            throw new IllegalArgumentException("Piece must be in [0, " + PIECES + ")");
+        }
+        this.piece = piece;
         this.color = color;
+        setRotation(0);
         this.x = 0; // Start at the top-left corner
         this.y = 3; // Center horizontally
     }
 
     // Method to rotate the block 90 degrees clockwise
     public void rotate() {
+        setRotation((rotation + 1) & (ROTATIONS - 1));
+    }
+
+    private void setRotation(int rotation) {
+        this.rotation = rotation;
+        shape = ROTATED_SHAPES[piece][rotation];
+        rowMasks = ROW_MASKS[piece][rotation];
+        cellRows = CELL_ROWS[piece][rotation];
+        cellColumns = CELL_COLUMNS[piece][rotation];
+    }
+
+    public int width() {
+        return shape[0].length;
+    }
+
+    public int height() {
+        return shape.length;
+    }
+
+    // Row bitmasks of a piece in the given rotation
+    static int[] rowMasks(int piece, int rotation) {
+        return ROW_MASKS[piece][rotation];
+    }
+
+    // Method to rotate a shape 90 degrees clockwise
+    private static int[][] rotateClockwise(int[][] shape) {
         int[][] rotated = new int[shape[0].length][shape.length];
         for (int i = 0; i < shape.length; i++) {
             for (int j = 0; j < shape[0].length; j++) {
                 rotated[j][shape.length - 1 - i] = shape[i][j];
             }
         }
-        shape = rotated;
+        return rotated;
+    }
+
+    // Method to pack each row of a shape into a bitmask
+    private static int[] rowMasks(int[][] shape) {
+        int[] masks = new int[shape.length];
+        for (int i = 0; i < shape.length; i++) {
+            for (int j = 0; j < shape[i].length; j++) {
+                if (shape[i][j] != 0) masks[i] |= 1 << j;
+            }
+        }
+        return masks;
     }
 }
 
-// Main Tetris game class using Swing
-public class Question3b extends JPanel implements ActionListener, KeyListener {
+// Main Tetris game class using Swing.
+// Game logic runs on its own fixed-timestep thread (GameLoop); the Swing side only queues key
+// presses and paints the latest published GameSnapshot on the EDT.
+public class Question3b extends JPanel implements KeyListener {
     private static final int BOARD_WIDTH = 10; // Width of the game board
     private static final int BOARD_HEIGHT = 20; // Height of the game board
     private static final int TILE_SIZE = 30; // Size of each tile in pixels
-    private static final int FPS = 10; // Frames per second (reduced for slower speed)
-    private static final int DELAY = 1000 / FPS; // Delay between frames in milliseconds
 
-    private final int[][] gameBoard; // 2D array representing the game board
-    private final Queue<Block> blockQueue; // Queue to store the sequence of falling blocks
-    private Block currentBlock; // Current falling block
-    private int score; // Player's score
-    private final javax.swing.Timer timer; // Timer for game updates (explicitly use javax.swing.Timer)
-
-    // Predefined colors for blocks
-    private static final Color[] COLORS = {
-        Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW, Color.ORANGE, Color.CYAN, Color.MAGENTA
-    };
+    private final GameLoop loop; // Owns the engine; the only thread that touches game state
+    private final BoardRenderer renderer; // Draws the game from a cached image of the settled cells
+    private final Rectangle dirty = new Rectangle(); // Scratch rectangle for dirty regions
+    private final AtomicBoolean repaintScheduled = new AtomicBoolean(); // True while showLatest is queued on the EDT
+    private final Runnable showLatest = this::showLatest;
+    private GameSnapshot shown; // Snapshot currently on screen (EDT only)
+    private boolean gameOverShown; // Game over dialog already displayed (EDT only)
 
     // Constructor to initialize the game
     public Question3b() {
@@ -102,182 +205,90 @@ public class Question3b extends JPanel implements ActionListener, KeyListener {
         setFocusable(true);
         addKeyListener(this);
 
-        gameBoard = new int[BOARD_HEIGHT][BOARD_WIDTH]; // Initialize empty game board
-        blockQueue = new LinkedList<>(); // Initialize empty block queue
-        score = 0; // Initialize score
-        generateNewBlock(); // Generate the first block
-
-        timer = new javax.swing.Timer(DELAY, this); // Use javax.swing.Timer
-        timer.start();
-    }
-
-    // Method to generate a new random block and enqueue it
-    private void generateNewBlock() {
-        Random random = new Random();
-        int[][][] shapes = {
-            {{1, 1, 1, 1}}, // I-block
-            {{1, 1}, {1, 1}}, // O-block
-            {{1, 1, 1}, {0, 1, 0}}, // T-block
-            {{1, 1, 0}, {0, 1, 1}}, // Z-block
-            {{0, 1, 1}, {1, 1, 0}}, // S-block
-            {{1, 0, 0}, {1, 1, 1}}, // L-block
-            {{0, 0, 1}, {1, 1, 1}} // J-block
-        };
-        int[][] shape = shapes[random.nextInt(shapes.length)];
-        Color color = COLORS[random.nextInt(COLORS.length)]; // Use predefined colors
-        Block block = new Block(shape, color);
-        blockQueue.add(block);
-        if (currentBlock == null) {
-            currentBlock = blockQueue.poll(); // Set the current block if it's not initialized yet
-        }
+        TetrisEngine engine = new TetrisEngine(BOARD_WIDTH, BOARD_HEIGHT, System.nanoTime()); // New piece sequence every run
+        loop = new GameLoop(engine, this::scheduleRepaint);
+        renderer = new BoardRenderer(BOARD_WIDTH, BOARD_HEIGHT, TILE_SIZE);
+        shown = loop.snapshot();
     }
 
-    // Method to check if a block can move to a new position
-    private boolean canMove(Block block, int newX, int newY) {
-        for (int i = 0; i < block.shape.length; i++) {
-            for (int j = 0; j < block.shape[0].length; j++) {
-                if (block.shape[i][j] != 0) {
-                    int x = newX + i;
-                    int y = newY + j;
-                    if (x < 0 || x >= BOARD_HEIGHT || y < 0 || y >= BOARD_WIDTH || gameBoard[x][y] != 0) {
-                        return false; // Collision detected
-                    }
-                }
-            }
-        }
-        return true; // No collision
+    // Method to start the game loop thread
+    public void start() {
+        Thread thread = new Thread(loop, "tetris-game-loop");
+        thread.setDaemon(true); // Do not keep the JVM alive once the window is closed
+        thread.start();
     }
 
     // Method to move the current block left
     public void moveLeft() {
-        if (canMove(currentBlock, currentBlock.x, currentBlock.y - 1)) {
-            currentBlock.y--; // Move the block left
-        }
+        loop.submit(GameLoop.Command.LEFT);
     }
 
     // Method to move the current block right
     public void moveRight() {
-        if (canMove(currentBlock, currentBlock.x, currentBlock.y + 1)) {
-            currentBlock.y++; // Move the block right
-        }
+        loop.submit(GameLoop.Command.RIGHT);
     }
 
     // Method to rotate the current block
     public void rotateBlock() {
-        Block rotatedBlock = new Block(currentBlock.shape, currentBlock.color);
-        rotatedBlock.rotate();
-        if (canMove(rotatedBlock, currentBlock.x, currentBlock.y)) {
-            currentBlock.rotate(); // Apply the rotation if it's valid
-        }
+        loop.submit(GameLoop.Command.ROTATE);
     }
 
-    // Method to move the current block down
-    public boolean moveDown() {
-        if (canMove(currentBlock, currentBlock.x + 1, currentBlock.y)) {
-            currentBlock.x++; // Move the block down
-            return true; // Move successful
-        } else {
-            placeBlock(); // Place the block on the game board
-            return false; // Cannot move down, block has landed
-        }
+    // Method to move the current block down one row
+    public void moveDown() {
+        loop.submit(GameLoop.Command.DOWN);
     }
 
-    // Method to place the current block on the game board
-    private void placeBlock() {
-        for (int i = 0; i < currentBlock.shape.length; i++) {
-            for (int j = 0; j < currentBlock.shape[0].length; j++) {
-                if (currentBlock.shape[i][j] != 0) {
-                    gameBoard[currentBlock.x + i][currentBlock.y + j] = 1; // Mark as filled
-                }
-            }
-        }
-        checkCompletedRows(); // Check for completed rows
-        currentBlock = blockQueue.poll(); // Get the next block
-        generateNewBlock(); // Generate a new block
-    }
-
-    // Method to check for completed rows and update the score
-    private void checkCompletedRows() {
-        for (int i = 0; i < BOARD_HEIGHT; i++) {
-            boolean isComplete = true;
-            for (int j = 0; j < BOARD_WIDTH; j++) {
-                if (gameBoard[i][j] == 0) {
-                    isComplete = false;
-                    break; // Row is not complete
-                }
-            }
-            if (isComplete) {
-                removeRow(i); // Remove the completed row
-                score += 100; // Increase the score
-            }
-        }
-    }
-
-    // Method to remove a completed row and shift rows down
-    private void removeRow(int row) {
-        for (int i = row; i > 0; i--) {
-            gameBoard[i] = Arrays.copyOf(gameBoard[i - 1], BOARD_WIDTH); // Shift down
-        }
-        Arrays.fill(gameBoard[0], 0); // Clear the top row
+    // Method to drop the current block to the bottom
+    public void dropBlock() {
+        loop.submit(GameLoop.Command.DROP);
     }
 
     // Method to check if the game is over
     public boolean isGameOver() {
-        for (int j = 0; j < BOARD_WIDTH; j++) {
-            if (gameBoard[0][j] != 0) {
-                return true; // Game over if there's any filled block in the top row
-            }
-        }
-        return false; // Game is still going
+        return loop.snapshot().gameOver;
     }
 
     // Method to paint the game board and blocks
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        renderer.paint(g, shown);
+    }
 
-        // Draw the game board
-        for (int i = 0; i < BOARD_HEIGHT; i++) {
-            for (int j = 0; j < BOARD_WIDTH; j++) {
-                if (gameBoard[i][j] != 0) {
-                    g.setColor(Color.GRAY); // Set color for filled cells
-                    g.fillRect(j * TILE_SIZE, i * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-                }
-            }
+    // Called on the loop thread after each publish; queues at most one showLatest on the EDT
+    private void scheduleRepaint() {
+        if (repaintScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(showLatest);
         }
+    }
 
-        // Draw the current block
-        if (currentBlock != null) {
-            g.setColor(currentBlock.color); // Set color for the current block
-            for (int i = 0; i < currentBlock.shape.length; i++) {
-                for (int j = 0; j < currentBlock.shape[0].length; j++) {
-                    if (currentBlock.shape[i][j] != 0) {
-                        g.fillRect((currentBlock.y + j) * TILE_SIZE, (currentBlock.x + i) * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-                    }
-                }
-            }
+    // Method to switch to the newest snapshot and repaint only what changed (runs on the EDT).
+    // A lock or line clear changes the settled cells and the score, so the whole panel is redrawn;
+    // otherwise only the area the block left and the area it entered are.
+    private void showLatest() {
+        repaintScheduled.set(false); // Clear first so a publish from now on schedules another run
+        GameSnapshot previous = shown;
+        shown = loop.snapshot();
+        if (shown.boardVersion != previous.boardVersion || shown.score != previous.score) {
+            repaint();
+        } else {
+            renderer.pieceBounds(previous, dirty);
+            repaint(dirty); // Area the block left
+            renderer.pieceBounds(shown, dirty);
+            repaint(dirty); // Area the block entered
+        }
+        if (shown.gameOver && !gameOverShown) {
+            gameOverShown = true;
+            JOptionPane.showMessageDialog(this, "Game Over! Final Score: " + shown.score);
         }
-
-        // Draw the score
-        g.setColor(Color.WHITE);
-        g.drawString("Score: " + score, 10, 20);
     }
 
-    // Method to handle game updates
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        if (!isGameOver()) {
-            if (!moveDown()) {
-                if (isGameOver()) {
-                    timer.stop();
-                    JOptionPane.showMessageDialog(this, "Game Over! Final Score: " + score);
-                }
-            }
-            repaint(); // Repaint after each update
-        }
+    // Render cost of the frames painted so far
+    public String frameStats() {
+        return renderer.frameStats();
     }
 
-    // Method to handle key presses
+    // Method to handle key presses; only queues a command, so it never waits for the game logic
     @Override
     public void keyPressed(KeyEvent e) {
         switch (e.getKeyCode()) {
@@ -293,8 +304,10 @@ public class Question3b extends JPanel implements ActionListener, KeyListener {
             case KeyEvent.VK_DOWN:
                 moveDown(); // Move down when down arrow key is pressed
                 break;
+            case KeyEvent.VK_SPACE:
+                dropBlock(); // Drop the block when space is pressed
+                break;
         }
-        repaint(); // Repaint after key action
     }
 
     @Override
@@ -305,11 +318,759 @@ public class Question3b extends JPanel implements ActionListener, KeyListener {
 
     // Main method to run the game
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--bench")) {
+            benchmark(args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--simulate")) {
+            int games = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            System.out.println(TetrisSimulator.run(BOARD_WIDTH, BOARD_HEIGHT, games, 10_000, 42, threads,
+                    TetrisSimulator.RANDOM_POLICY));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--alloc")) {
+            long bytes = TetrisSimulator.allocatedBytes(BOARD_WIDTH, BOARD_HEIGHT, 1_000_000, 42,
+                    TetrisSimulator.RANDOM_POLICY);
+            System.out.println("Bytes allocated over 1000000 pieces: " + bytes); // Output: 0
+            return;
+        }
+
         JFrame frame = new JFrame("Tetris Game");
         Question3b game = new Question3b();
         frame.add(game);
         frame.pack();
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setVisible(true); // Display the game window
+        game.start();
+    }
+
+    // Headless benchmark dropping the same random pieces on the cell board and the bitboard.
+    // Each piece gets a random rotation and column and is dropped straight down.
+    static void benchmark(int pieces) {
+        for (int round = 0; round < 3; round++) { // First rounds warm up the JIT
+            long start = System.nanoTime();
+            long cellLines = simulate(new CellBoard(BOARD_WIDTH, BOARD_HEIGHT), pieces, 42);
+            long cellTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            long bitLines = simulate(new BitBoard(BOARD_WIDTH, BOARD_HEIGHT), pieces, 42);
+            long bitTime = System.nanoTime() - start;
+            System.out.printf("pieces=%d cells=%d ms (%.0f pieces/s) bitboard=%d ms (%.0f pieces/s) lines %d / %d%n",
+                    pieces, cellTime / 1_000_000, pieces * 1e9 / cellTime,
+                    bitTime / 1_000_000, pieces * 1e9 / bitTime, cellLines, bitLines);
+        }
+    }
+
+    // Method to drop random pieces on a board, starting over whenever it tops out
+    private static long simulate(GameBoard board, int pieces, long seed) {
+        Random random = new Random(seed);
+        Block block = new Block(0, Color.GRAY);
+        long lines = 0;
+        for (int p = 0; p < pieces; p++) {
+            block.reset(random.nextInt(Block.PIECES), Color.GRAY);
+            for (int r = random.nextInt(4); r > 0; r--) block.rotate();
+            block.y = random.nextInt(BOARD_WIDTH - block.width() + 1);
+            if (!board.canPlace(block, block.x, block.y)) {
+                board.reset(); // Topped out, start a new game
+                continue;
+            }
+            while (board.canPlace(block, block.x + 1, block.y)) block.x++;
+            board.place(block, block.x, block.y);
+            lines += board.clearFullRows();
+        }
+        return lines;
+    }
+}
+
+// Headless Tetris game logic with no Swing dependency.
+// Pieces come from a seeded Random, so the same seed always replays the same game.
+// step() applies one tick of gravity and hardDrop() drops the block straight to the bottom.
+class TetrisEngine {
+    // Predefined colors for blocks
+    static final Color[] COLORS = {
+        Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW, Color.ORANGE, Color.CYAN, Color.MAGENTA
+    };
+    static final int LINES_PER_LEVEL = 10; // Rows to clear for the next level
+
+    private final BitBoard board; // Settled cells
+    private final int width; // Number of columns
+    private final Random random; // Seeded piece generator
+    private Block currentBlock; // Current falling block
+    private Block nextBlock; // Block shown in the preview (the two objects are swapped, never reallocated)
+    private int score; // Player's score
+    private long piecesPlaced; // Blocks locked so far
+    private long linesCleared; // Rows completed so far
+    private boolean gameOver;
+    private long boardVersion; // Incremented whenever the settled cells change
+
+    // Constructor for an empty board whose piece sequence is fixed by the seed
+    public TetrisEngine(int width, int height, long seed) {
+        this.board = new BitBoard(width, height);
+        this.width = width;
+        this.random = new Random(seed);
+        currentBlock = new Block(0, COLORS[0]);
+        nextBlock = new Block(0, COLORS[0]);
+        reset(seed);
+    }
+
+    // Method to start a new game on this engine without allocating
+    public void reset(long seed) {
+        board.reset();
+        boardVersion++;
+        random.setSeed(seed);
+        score = 0;
+        piecesPlaced = 0;
+        linesCleared = 0;
+        gameOver = false;
+        randomize(nextBlock);
+        spawn();
+    }
+
+    // Method to move the current block left, returns false if it is blocked
+    public boolean moveLeft() {
+        if (gameOver || !board.canPlace(currentBlock, currentBlock.x, currentBlock.y - 1)) return false;
+        currentBlock.y--;
+        return true;
+    }
+
+    // Method to move the current block right, returns false if it is blocked
+    public boolean moveRight() {
+        if (gameOver || !board.canPlace(currentBlock, currentBlock.x, currentBlock.y + 1)) return false;
+        currentBlock.y++;
+        return true;
+    }
+
+    // Method to rotate the current block clockwise, returns false if the rotation collides
+    public boolean rotate() {
+        if (gameOver) return false;
+        int[] rotatedMasks = Block.rowMasks(currentBlock.piece, (currentBlock.rotation + 1) & (Block.ROTATIONS - 1));
+        if (!board.canPlace(rotatedMasks, currentBlock.x, currentBlock.y)) return false;
+        currentBlock.rotate(); // Apply the rotation if it's valid
+        return true;
+    }
+
+    // Method to apply one tick of gravity.
+    // Returns true if the block moved down, false if it landed and was locked (or the game is over).
+    public boolean step() {
+        if (gameOver) return false;
+        if (board.canPlace(currentBlock, currentBlock.x + 1, currentBlock.y)) {
+            currentBlock.x++;
+            return true;
+        }
+        lock();
+        return false;
+    }
+
+    // Method to drop the current block to the bottom and lock it, returns the rows it fell
+    public int hardDrop() {
+        if (gameOver) return 0;
+        int start = currentBlock.x;
+        while (board.canPlace(currentBlock, currentBlock.x + 1, currentBlock.y)) currentBlock.x++;
+        int fallen = currentBlock.x - start;
+        lock();
+        return fallen;
+    }
+
+    // Method to place the current block, clear rows and bring in the next block
+    private void lock() {
+        board.place(currentBlock, currentBlock.x, currentBlock.y);
+        boardVersion++;
+        int cleared = board.clearFullRows();
+        linesCleared += cleared;
+        score += 100 * cleared; // Increase the score
+        piecesPlaced++;
+        if (!board.isRowEmpty(0)) {
+            gameOver = true; // Game over if there's any filled block in the top row
+        } else {
+            spawn();
+        }
+    }
+
+    // Method to make the preview block current and generate a new preview
+    private void spawn() {
+        Block landed = currentBlock;
+        currentBlock = nextBlock;
+        nextBlock = landed;
+        randomize(nextBlock);
+        if (!board.canPlace(currentBlock, currentBlock.x, currentBlock.y)) {
+            gameOver = true; // No room for the new block
+        }
+    }
+
+    // Method to turn a block into a new random piece at the spawn position
+    private void randomize(Block block) {
+        int piece = random.nextInt(Block.PIECES);
+        block.reset(piece, COLORS[random.nextInt(COLORS.length)]);
+    }
+
+    public BitBoard board() {
+        return board;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public Block currentBlock() {
+        return currentBlock;
+    }
+
+    public Block nextBlock() {
+        return nextBlock;
+    }
+
+    public int score() {
+        return score;
+    }
+
+    public long piecesPlaced() {
+        return piecesPlaced;
+    }
+
+    public long linesCleared() {
+        return linesCleared;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public long boardVersion() {
+        return boardVersion;
+    }
+
+    // Current level, one more every LINES_PER_LEVEL cleared rows
+    public int level() {
+        return (int) (linesCleared / LINES_PER_LEVEL);
+    }
+}
+
+// Renderer that keeps the settled cells in a back buffer.
+// The buffer is redrawn only when the snapshot's board version changes (a lock or a line clear);
+// every other frame is one image blit, clipped to the dirty area, plus the falling block's cells.
+class BoardRenderer {
+    private final int tileSize;
+    private final BufferedImage boardImage; // Settled cells at renderedVersion
+    private long renderedVersion = -1;
+
+    // Frame-time statistics in nanoseconds
+    private long frames;
+    private long totalFrameNanos;
+    private long maxFrameNanos;
+    private long lastFrameNanos;
+    private long boardRedraws;
+
+    public BoardRenderer(int width, int height, int tileSize) {
+        this.tileSize = tileSize;
+        boardImage = new BufferedImage(width * tileSize, height * tileSize, BufferedImage.TYPE_INT_RGB);
+    }
+
+    // Method to store the pixel area of the falling block in bounds (no allocation)
+    public void pieceBounds(GameSnapshot game, Rectangle bounds) {
+        bounds.setBounds(game.pieceY * tileSize, game.pieceX * tileSize,
+                game.pieceWidth * tileSize, game.pieceHeight * tileSize);
+    }
+
+    // Method to draw one frame; only the clip area of g is actually touched
+    public void paint(Graphics g, GameSnapshot game) {
+        long start = System.nanoTime();
+        if (renderedVersion != game.boardVersion) redrawBoard(game);
+        g.drawImage(boardImage, 0, 0, null);
+
+        // Draw the current block
+        g.setColor(game.pieceColor);
+        for (int k = 0; k < game.cellRows.length; k++) {
+            int row = game.pieceX + game.cellRows[k];
+            int column = game.pieceY + game.cellColumns[k];
+            g.fillRect(column * tileSize, row * tileSize, tileSize, tileSize);
+        }
+
+        // Draw the score
+        g.setColor(Color.WHITE);
+        g.drawString("Score: " + game.score + "  Level: " + game.level, 10, 20);
+
+        lastFrameNanos = System.nanoTime() - start;
+        totalFrameNanos += lastFrameNanos;
+        maxFrameNanos = Math.max(maxFrameNanos, lastFrameNanos);
+        frames++;
+    }
+
+    // Method to redraw the settled cells into the back buffer
+    private void redrawBoard(GameSnapshot game) {
+        Graphics2D g = boardImage.createGraphics();
+        try {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, boardImage.getWidth(), boardImage.getHeight());
+            g.setColor(Color.GRAY); // Set color for filled cells
+            for (int i = 0; i < game.height; i++) {
+                if (game.rows[i] == 0) continue;
+                for (int j = 0; j < game.width; j++) {
+                    if (game.isFilled(i, j)) g.fillRect(j * tileSize, i * tileSize, tileSize, tileSize);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        renderedVersion = game.boardVersion;
+        boardRedraws++;
+    }
+
+    public long frames() {
+        return frames;
+    }
+
+    public long lastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    public long maxFrameNanos() {
+        return maxFrameNanos;
+    }
+
+    public double averageFrameNanos() {
+        return frames == 0 ? 0 : (double) totalFrameNanos / frames;
+    }
+
+    public long boardRedraws() {
+        return boardRedraws;
+    }
+
+    public String frameStats() {
+        return String.format("frames=%d avg=%.1f us max=%.1f us last=%.1f us board redraws=%d",
+                frames, averageFrameNanos() / 1e3, maxFrameNanos / 1e3, lastFrameNanos / 1e3, boardRedraws);
+    }
+}
+
+// Immutable view of the game, published by the loop thread and painted on the EDT.
+// The row masks are copied only when the settled cells change; otherwise the array is shared
+// with the previous snapshot. Piece cell offsets come from Block's shared rotation table.
+class GameSnapshot {
+    final int width, height;
+    final int[] rows; // Settled cells, one mask per row (never modified)
+    final long boardVersion;
+    final int pieceX, pieceY; // Row and column of the falling block
+    final int pieceWidth, pieceHeight;
+    final int[] cellRows, cellColumns;
+    final Color pieceColor;
+    final int score;
+    final int level;
+    final boolean gameOver;
+
+    private GameSnapshot(TetrisEngine engine, int[] rows) {
+        BitBoard board = engine.board();
+        Block block = engine.currentBlock();
+        this.width = board.width();
+        this.height = board.height();
+        this.rows = rows;
+        this.boardVersion = engine.boardVersion();
+        this.pieceX = block.x;
+        this.pieceY = block.y;
+        this.pieceWidth = block.width();
+        this.pieceHeight = block.height();
+        this.cellRows = block.cellRows;
+        this.cellColumns = block.cellColumns;
+        this.pieceColor = block.color;
+        this.score = engine.score();
+        this.level = engine.level();
+        this.gameOver = engine.isGameOver();
+    }
+
+    // Method to capture the engine's state, reusing the previous rows if the board is unchanged
+    static GameSnapshot of(TetrisEngine engine, GameSnapshot previous) {
+        boolean sameBoard = previous != null && previous.boardVersion == engine.boardVersion();
+        return new GameSnapshot(engine, sameBoard ? previous.rows : engine.board().copyRows());
+    }
+
+    boolean isFilled(int row, int column) {
+        return (rows[row] >>> column & 1) != 0;
+    }
+}
+
+// Fixed-timestep game loop that owns a TetrisEngine.
+// Logic runs at TICKS_PER_SECOND regardless of how long painting takes. Input arrives through a
+// lock-free queue and is applied at the start of each tick. Gravity gets faster with the level.
+// After ticks that changed the game, a new GameSnapshot is published and onPublish is called.
+class GameLoop implements Runnable {
+    static final int TICKS_PER_SECOND = 120;
+    static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final int MAX_CATCH_UP_TICKS = 12; // After a longer stall the backlog is dropped, not replayed
+
+    // Ticks between gravity steps per level: 10 rows/s at level 0 (the old 10 FPS timer),
+    // then 20% faster each level until the block falls one row every tick
+    private static final int[] GRAVITY_TICKS = new int[16];
+
+    static {
+        double ticks = TICKS_PER_SECOND / 10.0;
+        for (int level = 0; level < GRAVITY_TICKS.length; level++) {
+            GRAVITY_TICKS[level] = Math.max(1, (int) Math.round(ticks));
+            ticks *= 0.8;
+        }
+    }
+
+    // Player input
+    enum Command {
+        LEFT, RIGHT, ROTATE, DOWN, DROP
+    }
+
+    private final TetrisEngine engine;
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<GameSnapshot> snapshot = new AtomicReference<>();
+    private final Runnable onPublish;
+    private volatile boolean running = true;
+    private int ticksSinceGravity;
+
+    public GameLoop(TetrisEngine engine, Runnable onPublish) {
+        this.engine = engine;
+        this.onPublish = onPublish;
+        snapshot.set(GameSnapshot.of(engine, null));
+    }
+
+    // Method to queue a command from any thread; never blocks
+    public void submit(Command command) {
+        commands.offer(command);
+    }
+
+    // Latest published state
+    public GameSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    // Method to make the loop exit after its current tick
+    public void stop() {
+        running = false;
+    }
+
+    // Ticks between gravity steps at the given level
+    static int gravityTicks(int level) {
+        return GRAVITY_TICKS[Math.min(level, GRAVITY_TICKS.length - 1)];
+    }
+
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        while (running && !engine.isGameOver()) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+            boolean changed = false;
+            for (int ticks = 0; nextTick <= now && ticks < MAX_CATCH_UP_TICKS; ticks++) {
+                changed |= tick();
+                nextTick += TICK_NANOS;
+            }
+            if (nextTick <= now) nextTick = now + TICK_NANOS; // Too far behind, resynchronize
+            if (changed) publish();
+        }
+        publish(); // Final state, including game over
+    }
+
+    // Method to run one logic step, returns true if the game changed
+    boolean tick() {
+        boolean changed = false;
+        for (Command command = commands.poll(); command != null; command = commands.poll()) {
+            changed |= apply(command);
+        }
+        if (++ticksSinceGravity >= gravityTicks(engine.level())) {
+            ticksSinceGravity = 0;
+            engine.step();
+            changed = true;
+        }
+        return changed;
+    }
+
+    private boolean apply(Command command) {
+        switch (command) {
+            case LEFT:
+                return engine.moveLeft();
+            case RIGHT:
+                return engine.moveRight();
+            case ROTATE:
+                return engine.rotate();
+            case DOWN:
+                ticksSinceGravity = 0; // A manual step replaces the next gravity step
+                engine.step();
+                return true;
+            case DROP:
+                ticksSinceGravity = 0;
+                engine.hardDrop();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void publish() {
+        snapshot.set(GameSnapshot.of(engine, snapshot.get()));
+        onPublish.run();
+    }
+}
+
+// Runs many independent headless games on a thread pool and reports the throughput.
+// Game i uses seed + i, so the totals do not depend on the number of threads.
+class TetrisSimulator {
+    // Decides where the current block should go by moving and rotating it; the simulator then hard-drops it
+    interface Policy {
+        void position(TetrisEngine engine, Random random);
+    }
+
+    // Policy using a random rotation and a random target column
+    static final Policy RANDOM_POLICY = (engine, random) -> {
+        for (int r = random.nextInt(4); r > 0; r--) engine.rotate();
+        Block block = engine.currentBlock();
+        int column = random.nextInt(engine.width() - block.width() + 1);
+        while (block.y > column && engine.moveLeft()) { }
+        while (block.y < column && engine.moveRight()) { }
+    };
+
+    // Totals of a simulation run
+    static class Report {
+        final int games;
+        final long pieces;
+        final long lines;
+        final long elapsedNanos;
+
+        Report(int games, long pieces, long lines, long elapsedNanos) {
+            this.games = games;
+            this.pieces = pieces;
+            this.lines = lines;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        double gamesPerSecond() {
+            return games * 1e9 / elapsedNanos;
+        }
+
+        double piecesPerSecond() {
+            return pieces * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("games=%d pieces=%d lines=%d time=%d ms (%.0f games/s, %.0f pieces/s)",
+                    games, pieces, lines, elapsedNanos / 1_000_000, gamesPerSecond(), piecesPerSecond());
+        }
+    }
+
+    // Method to play the given number of games on a fixed pool of worker threads.
+    // Each game ends when it tops out or after maxPieces blocks.
+    static Report run(int width, int height, int games, int maxPieces, long seed, int threads, Policy policy) {
+        if (games < 0 || maxPieces < 0 || threads < 1) {
+            throw new IllegalArgumentException("Games and pieces must be non-negative and threads positive");
+        }
+        AtomicInteger nextGame = new AtomicInteger();
+        Callable<long[]> worker = () -> {
+            long pieces = 0, lines = 0;
+            for (int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+                TetrisEngine engine = playGame(width, height, maxPieces, seed + game, policy);
+                pieces += engine.piecesPlaced();
+                lines += engine.linesCleared();
+            }
+            return new long[] {pieces, lines};
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            long pieces = 0, lines = 0;
+            for (Future<long[]> result : pool.invokeAll(Collections.nCopies(threads, worker))) {
+                long[] totals = result.get();
+                pieces += totals[0];
+                lines += totals[1];
+            }
+            return new Report(games, pieces, lines, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulated game failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Method to count the bytes the current thread allocates while playing games back to back
+    // on one engine. Moves, rotations, drops and spawns all reuse preallocated state, so the
+    // expected result is 0.
+    static long allocatedBytes(int width, int height, long pieces, long seed, Policy policy) {
+        TetrisEngine engine = new TetrisEngine(width, height, seed);
+        Random random = new Random(~seed);
+        play(engine, random, pieces / 10, seed, policy); // Warm up class loading and the JIT first
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        play(engine, random, pieces, seed, policy);
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    // Method to place the given number of pieces, starting a new game whenever one ends
+    private static void play(TetrisEngine engine, Random random, long pieces, long seed, Policy policy) {
+        for (long placed = 0; placed < pieces; placed++) {
+            if (engine.isGameOver()) engine.reset(++seed);
+            policy.position(engine, random);
+            engine.hardDrop();
+        }
+    }
+
+    // Method to play one game to the end with the given policy
+    static TetrisEngine playGame(int width, int height, int maxPieces, long seed, Policy policy) {
+        TetrisEngine engine = new TetrisEngine(width, height, seed);
+        Random random = new Random(~seed); // Policy decisions are seeded too
+        while (!engine.isGameOver() && engine.piecesPlaced() < maxPieces) {
+            policy.position(engine, random);
+            engine.hardDrop();
+        }
+        return engine;
+    }
+}
+
+// Operations the game needs from a board representation
+interface GameBoard {
+    boolean canPlace(Block block, int x, int y); // True if the block fits with its top-left at row x, column y
+    void place(Block block, int x, int y); // Mark the block's cells as filled
+    int clearFullRows(); // Remove completed rows and return how many there were
+    void reset(); // Empty the whole board
+}
+
+// Bitboard game board: one int per row with column j at bit j.
+// Collision and placement are a shift and an AND/OR per block row, and a completed
+// row is just a mask equal to fullRow.
+class BitBoard implements GameBoard {
+    private final int[] rows; // Row 0 is the top of the board
+    private final int fullRow; // Mask with every column set
+
+    // Constructor for an empty board (width at most 31 so shifted masks stay in an int)
+    public BitBoard(int width, int height) {
+        if (width < 1 || width > 31 || height < 1) {
+            throw new IllegalArgumentException("Board must be 1..31 columns wide and at least 1 row high");
+        }
+        rows = new int[height];
+        fullRow = (1 << width) - 1;
+    }
+
+    @Override
+    public boolean canPlace(Block block, int x, int y) {
+        return canPlace(block.rowMasks, x, y);
+    }
+
+    // Method to test a shape given by its row masks with its top-left at row x, column y
+    public boolean canPlace(int[] masks, int x, int y) {
+        // Every shape touches its own column 0, so a negative column always hits the left wall
+        if (x < 0 || y < 0 || y > 31 || x + masks.length > rows.length) return false;
+        for (int i = 0; i < masks.length; i++) {
+            int mask = masks[i] << y;
+            if ((mask & (rows[x + i] | ~fullRow)) != 0) return false; // Filled cell or right wall
+        }
+        return true;
+    }
+
+    @Override
+    public void place(Block block, int x, int y) {
+        int[] masks = block.rowMasks;
+        for (int i = 0; i < masks.length; i++) rows[x + i] |= masks[i] << y;
+    }
+
+    // Method to remove every completed row with a single compaction pass from the bottom up
+    @Override
+    public int clearFullRows() {
+        int read = rows.length - 1;
+        while (read >= 0 && rows[read] != fullRow) read--; // Rows below the lowest full row stay put
+        if (read < 0) return 0;
+        int write = read;
+        for (; read >= 0; read--) {
+            if (rows[read] != fullRow) rows[write--] = rows[read];
+        }
+        Arrays.fill(rows, 0, write + 1, 0); // New empty rows at the top
+        return write + 1;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(rows, 0);
+    }
+
+    public boolean isFilled(int row, int column) {
+        return (rows[row] >>> column & 1) != 0;
+    }
+
+    public boolean isRowEmpty(int row) {
+        return rows[row] == 0;
+    }
+
+    public int width() {
+        return Integer.bitCount(fullRow);
+    }
+
+    // Copy of the row masks for publishing to another thread
+    public int[] copyRows() {
+        return rows.clone();
+    }
+
+    public int height() {
+        return rows.length;
+    }
+}
+
+// Original cell-by-cell board, kept as the baseline for the benchmark
+class CellBoard implements GameBoard {
+    private final int[][] cells;
+    private final int width, height;
+
+    public CellBoard(int width, int height) {
+        this.width = width;
+        this.height = height;
+        cells = new int[height][width];
+    }
+
+    @Override
+    public boolean canPlace(Block block, int newX, int newY) {
+        for (int i = 0; i < block.shape.length; i++) {
+            for (int j = 0; j < block.shape[0].length; j++) {
+                if (block.shape[i][j] != 0) {
+                    int x = newX + i;
+                    int y = newY + j;
+                    if (x < 0 || x >= height || y < 0 || y >= width || cells[x][y] != 0) {
+                        return false; // Collision detected
+                    }
+                }
+            }
+        }
+        return true; // No collision
+    }
+
+    @Override
+    public void place(Block block, int x, int y) {
+        for (int i = 0; i < block.shape.length; i++) {
+            for (int j = 0; j < block.shape[0].length; j++) {
+                if (block.shape[i][j] != 0) cells[x + i][y + j] = 1;
+            }
+        }
+    }
+
+    @Override
+    public int clearFullRows() {
+        int cleared = 0;
+        for (int i = 0; i < height; i++) {
+            boolean isComplete = true;
+            for (int j = 0; j < width; j++) {
+                if (cells[i][j] == 0) {
+                    isComplete = false;
+                    break; // Row is not complete
+                }
+            }
+            if (isComplete) {
+                for (int k = i; k > 0; k--) {
+                    cells[k] = Arrays.copyOf(cells[k - 1], width); // Shift down
+                }
+                Arrays.fill(cells[0], 0); // Clear the top row
+                cleared++;
+            }
+        }
+        return cleared;
+    }
+
+    @Override
+    public void reset() {
+        for (int[] row : cells) Arrays.fill(row, 0);
     }
 }